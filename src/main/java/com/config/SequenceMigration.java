@@ -0,0 +1,66 @@
+package com.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Entities used to get IDENTITY ids and now draw them from pooled sequences
+ * (allocationSize 50). ddl-auto creates the sequences starting at 1, which
+ * would hand out ids that already exist in data/taskdb. On startup, before
+ * anything is inserted, every sequence is moved past the highest id of its
+ * table. Safe to run on every start: sequences already ahead are left alone.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SequenceMigration {
+
+	// Must match the allocationSize of the @SequenceGenerator mappings
+	private static final int ALLOCATION_SIZE = 50;
+
+	// table -> sequence
+	private static final Map<String, String> SEQUENCES = new LinkedHashMap<>();
+	static {
+		SEQUENCES.put("users", "users_seq");
+		SEQUENCES.put("task", "task_seq");
+		SEQUENCES.put("task_detail", "task_detail_seq");
+		SEQUENCES.put("work_logs", "work_logs_seq");
+		SEQUENCES.put("user_login_audit", "user_login_audit_seq");
+		SEQUENCES.put("leave_requests", "leave_requests_seq");
+		SEQUENCES.put("user_task_counters", "user_task_counters_seq");
+		SEQUENCES.put("task_events", "task_events_seq");
+		SEQUENCES.put("work_log_daily", "work_log_daily_seq");
+		SEQUENCES.put("timesheet_import_jobs", "timesheet_import_jobs_seq");
+	}
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public SequenceMigration(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@PostConstruct
+	void migrate() {
+		SEQUENCES.forEach(this::alignSequence);
+	}
+
+	private void alignSequence(String table, String sequence) {
+		Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+		Long next = jdbcTemplate.queryForObject(
+				"SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = UPPER(?)",
+				Long.class, sequence);
+
+		// The pooled optimizer uses (value - 49 .. value] for a fetched value, so the
+		// next value must be at least maxId + 50 to stay clear of existing rows
+		long required = maxId + ALLOCATION_SIZE;
+		if (next != null && next < required) {
+			jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + required);
+			System.out.println("Moved " + sequence + " from " + next + " to " + required + " (max id " + maxId + ")");
+		}
+	}
+}
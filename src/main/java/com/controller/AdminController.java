@@ -22,8 +22,17 @@ import org.springframework.http.MediaType;
 import com.dto.AssignTaskDto;
 import com.dto.GetTaskRequest;
 import com.entity.User;
+import com.security.PasswordHashingExecutor;
 import com.service.AdminService;
+import com.service.DueDateScheduler;
+import com.service.ExportService;
+import com.service.LoginAuditWriter;
 import com.service.ReportService;
+import com.service.TaskCounterService;
+import com.service.TaskSearchIndex;
+import com.service.WorkLogRollupService;
+import com.service.TaskService;
+import com.util.NdjsonResponses;
 
 import jakarta.validation.constraints.NotNull;
 
@@ -38,28 +47,104 @@ public class AdminController {
 	@Autowired
 	ReportService reportService;
 
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private LoginAuditWriter auditWriter;
+
+	@Autowired
+	private PasswordHashingExecutor hashingExecutor;
+
+	@Autowired
+	private TaskCounterService counterService;
+
+	@Autowired
+	private TaskSearchIndex searchIndex;
+
+	@Autowired
+	private DueDateScheduler dueDateScheduler;
+
+	@Autowired
+	private ExportService exportService;
+
+	@Autowired
+	private WorkLogRollupService rollupService;
+
+	@org.springframework.beans.factory.annotation.Value("${tasks.page.max-size:1000}")
+	private int maxPageSize;
+
 	@GetMapping("/users")
 	public List<User> getAllUsers() {
 		System.out.println("DEBUG: AdminController.getAllUsers called");
 		return service.getUsers();
 	}
 
+	// cursor/size switch to keyset pages, stream=true to NDJSON; neither keeps the full list response
 	@GetMapping("/tasks")
 	public ResponseEntity<?> getTasks(@RequestParam @NotNull LocalDate fromDate,
-			@RequestParam @NotNull LocalDate toDate, @RequestParam(required = false) List<Long> userIds) {
+			@RequestParam @NotNull LocalDate toDate, @RequestParam(required = false) List<Long> userIds,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size,
+			@RequestParam(defaultValue = "false") boolean stream) {
 
 		if (fromDate.isAfter(toDate)) {
 			return ResponseEntity.badRequest().body("fromDate must be before toDate");
 		}
+		if (stream) {
+			return NdjsonResponses.of(out -> taskService.streamTasks(fromDate, toDate, userIds, null, out));
+		}
+		if (cursor != null || size != null) {
+			try {
+				return ResponseEntity.ok(taskService.getTaskPage(fromDate, toDate, userIds, cursor, size));
+			} catch (IllegalArgumentException e) {
+				return ResponseEntity.badRequest().body(e.getMessage());
+			}
+		}
 		return ResponseEntity.ok(service.getTasks(fromDate, toDate, userIds));
 	}
 
+	// q: words, "phrases" and prefix* terms, all must match; ranked by relevance
+	@GetMapping("/tasks/search")
+	public ResponseEntity<?> searchTasks(@RequestParam(required = false) String q,
+			@RequestParam(required = false) com.entity.Status status,
+			@RequestParam(required = false) Long assigneeId,
+			@RequestParam(required = false) LocalDate from, @RequestParam(required = false) LocalDate to,
+			@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size) {
+
+		if (!searchIndex.isReady()) {
+			return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "5")
+					.body("Search index is still loading, please retry shortly");
+		}
+		if (page < 0 || size <= 0) {
+			return ResponseEntity.badRequest().body("page must be >= 0 and size > 0");
+		}
+		return ResponseEntity.ok(searchIndex.search(q, status, assigneeId, from, to, page,
+				Math.min(size, maxPageSize)));
+	}
+
 	@PostMapping("/task")
-	public ResponseEntity<?> getAllTasks(@RequestBody(required = false) GetTaskRequest request) {
-		if (request == null || (request.getFromDate() == null && request.getToDate() == null)) {
+	public ResponseEntity<?> getAllTasks(@RequestBody(required = false) GetTaskRequest request,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size,
+			@RequestParam(defaultValue = "false") boolean stream) {
+		boolean noRange = request == null || (request.getFromDate() == null && request.getToDate() == null);
+		LocalDate fromDate = noRange ? null : request.getFromDate();
+		LocalDate toDate = noRange ? null : request.getToDate();
+		List<Long> userIds = noRange ? null : request.getUserIds();
+
+		if (stream) {
+			return NdjsonResponses.of(out -> taskService.streamTasks(fromDate, toDate, userIds, null, out));
+		}
+		if (cursor != null || size != null) {
+			try {
+				return ResponseEntity.ok(taskService.getTaskPage(fromDate, toDate, userIds, cursor, size));
+			} catch (IllegalArgumentException e) {
+				return ResponseEntity.badRequest().body(e.getMessage());
+			}
+		}
+		if (noRange) {
 			return ResponseEntity.ok(service.getTasks());
 		}
-		return ResponseEntity.ok(service.getTasks(request.getFromDate(), request.getToDate(), request.getUserIds()));
+		return ResponseEntity.ok(service.getTasks(fromDate, toDate, userIds));
 	}
 
 	@PostMapping("/assign-task")
@@ -80,6 +165,102 @@ public class AdminController {
 		return ResponseEntity.ok(service.getAuditLogs());
 	}
 
+	@GetMapping("/metrics/audit-writer")
+	public ResponseEntity<?> getAuditWriterMetrics() {
+		return ResponseEntity.ok(auditWriter.getMetrics());
+	}
+
+	@GetMapping("/metrics/login-pool")
+	public ResponseEntity<?> getLoginPoolMetrics() {
+		return ResponseEntity.ok(hashingExecutor.getMetrics());
+	}
+
+	@GetMapping("/metrics/due-dates")
+	public ResponseEntity<?> getDueDateMetrics() {
+		return ResponseEntity.ok(dueDateScheduler.getMetrics());
+	}
+
+	@GetMapping("/tasks/overdue")
+	public ResponseEntity<?> getOverdueTasks() {
+		return ResponseEntity.ok(dueDateScheduler.getOverdue());
+	}
+
+	@GetMapping("/maintenance/task-counters/check")
+	public ResponseEntity<?> checkTaskCounters() {
+		return ResponseEntity.ok(counterService.checkReport());
+	}
+
+	@PostMapping("/maintenance/task-counters/rebuild")
+	public ResponseEntity<?> rebuildTaskCounters() {
+		int rows = counterService.rebuild();
+		return ResponseEntity.ok(java.util.Map.of("rebuilt", true, "rows", rows));
+	}
+
+	@PostMapping("/maintenance/work-log-daily/rebuild")
+	public ResponseEntity<?> rebuildWorkLogDaily() {
+		int rows = rollupService.rebuild();
+		return ResponseEntity.ok(java.util.Map.of("rebuilt", true, "rows", rows));
+	}
+
+	@PostMapping("/maintenance/worked-minutes/reconcile")
+	public ResponseEntity<?> reconcileWorkedMinutes() {
+		java.util.Map<Long, long[]> corrected = taskService.reconcileWorkedMinutes();
+		return ResponseEntity.ok(java.util.Map.of("corrected", corrected.size(), "tasks", corrected));
+	}
+
+	// Flat rows for bulk consumers; format=ndjson|csv, gzip when the client accepts it
+	@GetMapping("/export/work-logs")
+	public ResponseEntity<?> exportWorkLogs(@RequestParam(required = false) LocalDate from,
+			@RequestParam(required = false) LocalDate to, @RequestParam(required = false) List<Long> userIds,
+			@RequestParam(defaultValue = "ndjson") String format,
+			@org.springframework.web.bind.annotation.RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		return export("work-logs", format, acceptEncoding, from, to,
+				(f, out) -> exportService.exportWorkLogs(from, to, userIds, f, out));
+	}
+
+	@GetMapping("/export/audit")
+	public ResponseEntity<?> exportAudit(@RequestParam(required = false) LocalDate from,
+			@RequestParam(required = false) LocalDate to, @RequestParam(required = false) List<Long> userIds,
+			@RequestParam(defaultValue = "ndjson") String format,
+			@org.springframework.web.bind.annotation.RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		return export("audit", format, acceptEncoding, from, to,
+				(f, out) -> exportService.exportAudit(from, to, userIds, f, out));
+	}
+
+	private ResponseEntity<?> export(String name, String format, String acceptEncoding, LocalDate from, LocalDate to,
+			java.util.function.BiConsumer<ExportService.Format, java.io.OutputStream> writer) {
+		ExportService.Format f;
+		try {
+			f = ExportService.Format.valueOf(format.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("format must be ndjson or csv");
+		}
+		if (from != null && to != null && from.isAfter(to)) {
+			return ResponseEntity.badRequest().body("from must be before to");
+		}
+		boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+				.contentType(f == ExportService.Format.CSV ? MediaType.parseMediaType("text/csv")
+						: NdjsonResponses.MEDIA_TYPE)
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + name + "."
+						+ f.name().toLowerCase());
+		if (gzip) {
+			response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+		return response.body((org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody) out -> {
+			if (gzip) {
+				try (java.util.zip.GZIPOutputStream zip = new java.util.zip.GZIPOutputStream(out, 8192)) {
+					writer.accept(f, zip);
+				}
+			} else {
+				java.io.BufferedOutputStream buffered = new java.io.BufferedOutputStream(out, 8192);
+				writer.accept(f, buffered);
+				buffered.flush();
+			}
+		});
+	}
+
 	@GetMapping("/work-logs")
 	public ResponseEntity<?> getWorkLogs() {
 		return ResponseEntity.ok(service.getWorkLogs());
@@ -90,8 +271,30 @@ public class AdminController {
 		return ResponseEntity.ok(service.getUserAuditLogs(userId));
 	}
 
+	// groupBy=day|week|month|task, from the daily rollup
+	@GetMapping("/work-logs/{userId}/summary")
+	public ResponseEntity<?> getUserWorkSummary(@PathVariable Long userId,
+			@RequestParam(required = false) LocalDate from, @RequestParam(required = false) LocalDate to,
+			@RequestParam(defaultValue = "day") String groupBy) {
+		try {
+			return ResponseEntity.ok(rollupService.summary(userId, from, to,
+					WorkLogRollupService.GroupBy.valueOf(groupBy.toUpperCase())));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("groupBy must be day, week, month or task");
+		}
+	}
+
+	// cursor/size switch to keyset pages (newest first)
 	@GetMapping("/work-logs/{userId}")
-	public ResponseEntity<?> getUserWorkLogs(@org.springframework.web.bind.annotation.PathVariable Long userId) {
+	public ResponseEntity<?> getUserWorkLogs(@org.springframework.web.bind.annotation.PathVariable Long userId,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+		if (cursor != null || size != null) {
+			try {
+				return ResponseEntity.ok(service.getUserWorkLogPage(userId, cursor, size));
+			} catch (IllegalArgumentException e) {
+				return ResponseEntity.badRequest().body(e.getMessage());
+			}
+		}
 		return ResponseEntity.ok(service.getUserWorkLogs(userId));
 	}
 
@@ -1,11 +1,12 @@
 package com.controller;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -16,13 +17,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.dto.LoginRequest;
-import com.entity.UserLoginAudit;
-import com.repo.UserLoginAuditRepository;
 import com.security.CustomUserDetails;
+import com.security.PasswordHashingExecutor;
+import com.service.LoginAuditWriter;
+import com.service.SessionRegistry;
 import com.util.JwtUtil;
 
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.transaction.Transactional;
 
 @RestController
 @RequestMapping("/auth")
@@ -36,45 +37,41 @@ public class AuthController {
 	private JwtUtil jwtUtil;
 
 	@Autowired
-	private UserLoginAuditRepository auditRepo;
+	private LoginAuditWriter auditWriter;
 
-	@PostMapping("/login")
-	public Map<String, String> login(@RequestBody LoginRequest req, HttpServletRequest request) {
-
-		Authentication auth = authManager
-				.authenticate(new UsernamePasswordAuthenticationToken(req.getUsername(), req.getPassword()));
+	@Autowired
+	private SessionRegistry sessionRegistry;
 
-		CustomUserDetails user = (CustomUserDetails) auth.getPrincipal();
+	@Autowired
+	private PasswordHashingExecutor hashingExecutor;
 
-		// Close any previous active sessions for this user
-		List<UserLoginAudit> activeSessions = auditRepo.findActiveSessions(user.getUserId());
-		for (UserLoginAudit active : activeSessions) {
-			active.setLogoutTime(LocalDateTime.now());
-			active.setStatus("LOGOUT");
-			if (active.getLoginTime() != null) {
-				active.setSessionDurationMinutes(
-						Duration.between(active.getLoginTime(), active.getLogoutTime()).toMinutes());
-			} else {
-				active.setSessionDurationMinutes(0L);
-			}
-			auditRepo.save(active);
+	@PostMapping("/login")
+	public ResponseEntity<?> login(@RequestBody LoginRequest req, HttpServletRequest request) {
+
+		// BCrypt runs on the bounded hashing pool, not on the request thread
+		Authentication auth;
+		try {
+			auth = hashingExecutor.execute(() -> authManager
+					.authenticate(new UsernamePasswordAuthenticationToken(req.getUsername(), req.getPassword())));
+		} catch (RejectedExecutionException e) {
+			return ResponseEntity.status(503)
+					.header(HttpHeaders.RETRY_AFTER, String.valueOf(hashingExecutor.getRetryAfterSeconds()))
+					.body("Too many logins in progress, please retry shortly");
 		}
 
-		UserLoginAudit audit = new UserLoginAudit();
-		audit.setUserId(user.getUserId());
-		audit.setUsername(user.getUsername());
-		audit.setLoginTime(LocalDateTime.now());
-		audit.setStatus("ACTIVE");
-		audit.setIpAddress(request.getRemoteAddr());
+		CustomUserDetails user = (CustomUserDetails) auth.getPrincipal();
 
-		auditRepo.save(audit);
+		LocalDateTime loginTime = LocalDateTime.now();
+		sessionRegistry.login(user.getUserId(), loginTime);
+		// Closing previous active sessions and inserting the new row happen on the audit writer thread
+		auditWriter.recordLogin(user.getUserId(), user.getUsername(), request.getRemoteAddr(),
+				request.getHeader("User-Agent"), loginTime);
 
 		String token = jwtUtil.generateToken(user);
 
-		return Map.of("token", token);
+		return ResponseEntity.ok(Map.of("token", token));
 	}
 
-	@Transactional
 	@PostMapping("/logout")
 	public void logout(HttpServletRequest request) {
 
@@ -87,23 +84,8 @@ public class AuthController {
 		String token = header.substring(7);
 		Long userId = jwtUtil.extractUserId(token);
 
-		UserLoginAudit audit = auditRepo.findActiveSessions(userId)
-				.stream()
-				.findFirst()
-				.orElse(null);
-
-		if (audit != null) {
-			audit.setLogoutTime(LocalDateTime.now());
-			if (audit.getLoginTime() != null) {
-				audit.setSessionDurationMinutes(
-						Duration.between(audit.getLoginTime(), audit.getLogoutTime()).toMinutes());
-			} else {
-				audit.setSessionDurationMinutes(0L);
-			}
-			audit.setStatus("LOGOUT");
-			auditRepo.save(audit);
-		}
-
+		sessionRegistry.logout(userId);
+		auditWriter.recordLogout(userId, LocalDateTime.now());
 	}
 
 }
@@ -13,11 +13,15 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.dto.TaskRequest;
 import com.dto.TaskResponse;
+import com.security.CustomUserDetails;
 import com.service.TaskService;
+import com.service.TaskEventService;
+import com.util.NdjsonResponses;
 
 @RestController
 @RequestMapping("/user/tasks")
@@ -27,9 +31,26 @@ public class TaskController {
 	@Autowired
 	TaskService taskService;
 
+	@Autowired
+	TaskEventService eventService;
+
 	@GetMapping
-	public List<TaskResponse> viewTasks(Authentication authentication) {
-		return taskService.viewTasks(authentication);
+	public ResponseEntity<?> viewTasks(Authentication authentication,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size,
+			@RequestParam(defaultValue = "false") boolean stream) {
+		Long userId = ((CustomUserDetails) authentication.getPrincipal()).getUserId();
+		if (stream) {
+			return NdjsonResponses.of(out -> taskService.streamTasks(null, null, null, userId, out));
+		}
+		if (cursor != null || size != null) {
+			try {
+				return ResponseEntity.ok(taskService.getUserTaskPage(userId, cursor, size));
+			} catch (IllegalArgumentException e) {
+				return ResponseEntity.badRequest().body(e.getMessage());
+			}
+		}
+		List<TaskResponse> tasks = taskService.viewTasks(authentication);
+		return ResponseEntity.ok(tasks);
 	}
 
 	@PutMapping("/{taskId}")
@@ -56,7 +77,15 @@ public class TaskController {
 	}
 
 	@GetMapping("/{taskId}/history")
-	public ResponseEntity<?> getTaskHistory(@PathVariable Long taskId) {
-		return ResponseEntity.ok(taskService.getTaskHistory(taskId));
+	public ResponseEntity<?> getTaskHistory(@PathVariable Long taskId,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+		if (cursor != null || size != null) {
+			try {
+				return ResponseEntity.ok(eventService.getHistoryPage(taskId, cursor, size));
+			} catch (IllegalArgumentException e) {
+				return ResponseEntity.badRequest().body(e.getMessage());
+			}
+		}
+		return ResponseEntity.ok(eventService.getHistory(taskId));
 	}
 }
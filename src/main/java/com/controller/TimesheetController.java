@@ -1,26 +1,31 @@
 package com.controller;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.time.LocalDate;
+import java.util.concurrent.RejectedExecutionException;
 
+import com.dto.TimesheetImportJobDto;
 import com.dto.WeeklyLogResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.service.TimesheetImportJobService;
 import com.service.TimesheetService;
+import com.service.TimesheetTemplateCache;
+import com.service.WorkLogRollupService;
 import com.util.JwtUtil;
 
 @RestController
@@ -34,13 +39,24 @@ public class TimesheetController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private WorkLogRollupService rollupService;
+
+    @Autowired
+    private TimesheetImportJobService importJobService;
+
+    // Same user, day and task set as the If-None-Match copy: 304 without building anything
     @GetMapping("/template")
-    public ResponseEntity<InputStreamResource> downloadTemplate(@RequestHeader("Authorization") String authHeader)
-            throws IOException {
+    public ResponseEntity<?> downloadTemplate(@RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         String token = authHeader.substring(7);
         Long userId = jwtUtil.extractUserId(token);
 
-        ByteArrayInputStream in = timesheetService.generateTemplate(userId);
+        TimesheetTemplateCache.Key key = timesheetService.templateKey(userId);
+        String etag = key.etag();
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            return ResponseEntity.status(304).eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).build();
+        }
 
         HttpHeaders headers = new HttpHeaders();
         headers.add("Content-Disposition", "attachment; filename=timesheet_template.xlsx");
@@ -48,11 +64,14 @@ public class TimesheetController {
         return ResponseEntity
                 .ok()
                 .headers(headers)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
                 .contentType(
                         MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(new InputStreamResource(in));
+                .body((StreamingResponseBody) out -> timesheetService.writeTemplate(key, out));
     }
 
+    // Accepted as a job; poll /jobs/{id} for progress. The same file uploaded again returns its existing job.
     @PostMapping("/upload")
     public ResponseEntity<?> uploadTimesheet(@RequestHeader("Authorization") String authHeader,
             @RequestParam("file") MultipartFile file) {
@@ -60,13 +79,25 @@ public class TimesheetController {
             String token = authHeader.substring(7);
             Long userId = jwtUtil.extractUserId(token);
 
-            String message = timesheetService.processTimesheet(file, userId);
-            return ResponseEntity.ok(message);
+            TimesheetImportJobDto job = importJobService.submit(userId, file);
+            return job.isDuplicate() ? ResponseEntity.ok(job) : ResponseEntity.accepted().body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(importJobService.getRetryAfterSeconds()))
+                    .body("Too many timesheet imports in progress, please retry shortly");
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Upload failed: " + e.getMessage());
         }
     }
 
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> getImportJob(@RequestHeader("Authorization") String authHeader, @PathVariable Long id) {
+        String token = authHeader.substring(7);
+        Long userId = jwtUtil.extractUserId(token);
+        return importJobService.find(userId, id).<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/save-weekly")
     public ResponseEntity<?> saveWeeklyLogs(@RequestHeader("Authorization") String authHeader,
             @org.springframework.web.bind.annotation.RequestBody com.dto.WeeklyLogRequest request) {
@@ -96,4 +127,32 @@ public class TimesheetController {
             return ResponseEntity.status(500).body("Error fetching logs: " + e.getMessage());
         }
     }
+
+    // Same grid as /weekly over any range up to two months, e.g. a month view
+    @GetMapping("/range")
+    public ResponseEntity<?> getLogRange(@RequestHeader("Authorization") String authHeader,
+            @RequestParam LocalDate from, @RequestParam LocalDate to) {
+        String token = authHeader.substring(7);
+        Long userId = jwtUtil.extractUserId(token);
+        try {
+            return ResponseEntity.ok(timesheetService.getLogRange(userId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Logged time between two dates grouped by day, week, month or task
+    @GetMapping("/summary")
+    public ResponseEntity<?> getSummary(@RequestHeader("Authorization") String authHeader,
+            @RequestParam(required = false) LocalDate from, @RequestParam(required = false) LocalDate to,
+            @RequestParam(defaultValue = "week") String groupBy) {
+        String token = authHeader.substring(7);
+        Long userId = jwtUtil.extractUserId(token);
+        try {
+            return ResponseEntity.ok(rollupService.summary(userId, from, to,
+                    WorkLogRollupService.GroupBy.valueOf(groupBy.toUpperCase())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("groupBy must be day, week, month or task");
+        }
+    }
 }
@@ -0,0 +1,21 @@
+package com.dto;
+
+import java.time.LocalDate;
+
+import com.entity.Status;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskSearchHit {
+    private Long taskId;
+    private String title;
+    private Status status;
+    private Long assigneeId;
+    private LocalDate createdAt;
+    private double score;
+}
@@ -0,0 +1,18 @@
+package com.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskSearchResponse {
+    private long total; // all matches, not just this page
+    private boolean totalExact; // false: an unranked listing stopped counting, total is a lower bound
+    private int page;
+    private int size;
+    private List<TaskSearchHit> hits;
+}
@@ -0,0 +1,25 @@
+package com.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TimesheetImportJobDto {
+    private Long id;
+    private String state; // QUEUED, RUNNING, DONE or FAILED
+    private String fileName;
+    private Integer totalRows; // null until the file has been opened, or when it does not record its size
+    private int rowsDone;
+    private int rowsFailed;
+    private Long etaSeconds; // running jobs only, once some rows are done
+    private String message; // import summary with row errors, or why the job failed
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private boolean duplicate; // the same file was uploaded before; this is that upload's job
+}
@@ -0,0 +1,14 @@
+package com.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WorkSummaryDto {
+    private String key; // date, week start date, yyyy-MM or task id, depending on the grouping
+    private long totalMinutes;
+    private long logCount;
+}
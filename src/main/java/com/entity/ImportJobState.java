@@ -0,0 +1,5 @@
+package com.entity;
+
+public enum ImportJobState {
+	QUEUED, RUNNING, DONE, FAILED
+}
@@ -6,12 +6,15 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "leave_requests")
+@Table(name = "leave_requests", indexes = {
+        // overlap check on apply
+        @Index(name = "idx_leave_requests_user_status_from", columnList = "user_id, status, from_date") })
 @Data
 public class LeaveRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "leave_requests_seq")
+    @SequenceGenerator(name = "leave_requests_seq", sequenceName = "leave_requests_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -9,20 +9,27 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@Table(name = "task", indexes = {
+        // a user's tasks in a creation date range
+        @Index(name = "idx_task_user_created", columnList = "user_id, created_at") })
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Task {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -41,13 +48,20 @@ public class Task {
     @Column(name = "due_date", updatable = false)
     private LocalDate dueDate;
 
+    // Only ever changed in the database (TaskRepository.addWorkedMinutes), never by saving the entity
+    @Column(name = "total_worked_minutes", updatable = false)
     private Long totalWorkedMinutes;
     private Boolean completedOnTime;
     private Long delayMinutes;
     private LocalDate completedAt;
     private String comment;
 
-    @jakarta.persistence.OneToMany(mappedBy = "task", fetch = FetchType.EAGER)
+    // Loaded only where the transitions are actually read; list views use the
+    // TaskResponse projection in TaskRepository instead
+    @jakarta.persistence.OneToMany(mappedBy = "task", fetch = FetchType.LAZY)
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    @lombok.ToString.Exclude
+    @lombok.EqualsAndHashCode.Exclude
     private java.util.List<TaskDetail> history;
 
 }
@@ -0,0 +1,27 @@
+package com.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One row per task whose history TaskHistoryBackfill has written; the primary key makes it once per task
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "task_backfills")
+public class TaskBackfill {
+
+	@Id
+	@Column(name = "task_id")
+	private Long taskId;
+
+	private LocalDateTime backfilledAt;
+
+}
@@ -9,8 +9,10 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -20,11 +22,14 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "task_detail")
+@Table(name = "task_detail", indexes = {
+		// latest IN_PROGRESS row of a task, status probes
+		@Index(name = "idx_task_detail_task_status_started", columnList = "task_id, status, started_at") })
 public class TaskDetail {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_detail_seq")
+	@SequenceGenerator(name = "task_detail_seq", sequenceName = "task_detail_seq", allocationSize = 50)
 	private Long id;
 
 	@ManyToOne
@@ -0,0 +1,80 @@
+package com.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One immutable entry of a task's history. seq numbers the events of a task from 1.
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "task_events", uniqueConstraints = @UniqueConstraint(name = "uk_task_events_task_seq", columnNames = {
+		"task_id", "seq" }))
+public class TaskEvent {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_events_seq")
+	@SequenceGenerator(name = "task_events_seq", sequenceName = "task_events_seq", allocationSize = 50)
+	private Long id;
+
+	@Column(name = "task_id", nullable = false, updatable = false)
+	private Long taskId;
+
+	@Column(nullable = false, updatable = false)
+	private long seq;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, updatable = false)
+	private TaskEventType type;
+
+	@Column(updatable = false)
+	private Long actorId;
+
+	@Column(updatable = false)
+	private String actorName;
+
+	@Enumerated(EnumType.STRING)
+	@Column(updatable = false)
+	private Status fromStatus;
+
+	@Enumerated(EnumType.STRING)
+	@Column(updatable = false)
+	private Status toStatus;
+
+	@Column(updatable = false)
+	private Long fromUserId;
+
+	@Column(updatable = false)
+	private Long toUserId;
+
+	// Minutes logged, WORK_LOG only
+	@Column(updatable = false)
+	private Long minutes;
+
+	// Free text that came with the change (comment, edited fields)
+	@Column(length = 2000, updatable = false)
+	private String payload;
+
+	// Display line, e.g. "IN_PROGRESS -> REVIEW" or "Logged 1h 30m"
+	@Column(updatable = false)
+	private String metadata;
+
+	@Column(nullable = false, updatable = false)
+	private LocalDateTime createdAt;
+
+	// Reconstructed from task_detail/work_logs for tasks that predate the event store
+	@Column(updatable = false)
+	private boolean legacy;
+
+}
@@ -0,0 +1,12 @@
+package com.entity;
+
+public enum TaskEventType {
+
+	CREATED,
+	STATUS_CHANGE,
+	REASSIGN,
+	COMPLETED,
+	WORK_LOG,
+	EDITED
+
+}
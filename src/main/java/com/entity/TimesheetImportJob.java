@@ -0,0 +1,62 @@
+package com.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One uploaded timesheet file; the same content uploaded again by the same user maps to the same row
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "timesheet_import_jobs", uniqueConstraints = @UniqueConstraint(name = "uk_timesheet_import_jobs_user_hash", columnNames = {
+		"user_id", "content_hash" }))
+public class TimesheetImportJob {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "timesheet_import_jobs_seq")
+	@SequenceGenerator(name = "timesheet_import_jobs_seq", sequenceName = "timesheet_import_jobs_seq", allocationSize = 50)
+	private Long id;
+
+	@Column(name = "user_id", nullable = false)
+	private Long userId;
+
+	// SHA-256 of the file, hex
+	@Column(name = "content_hash", nullable = false, length = 64)
+	private String contentHash;
+
+	private String fileName;
+
+	@Enumerated(EnumType.STRING)
+	private ImportJobState state;
+
+	// Data rows in the sheet, when the file declares its size
+	private Integer totalRows;
+
+	private int rowsDone;
+
+	private int rowsFailed;
+
+	// Import summary and row errors, or why the job failed
+	@Column(length = 100_000)
+	private String message;
+
+	private LocalDateTime createdAt;
+
+	private LocalDateTime startedAt;
+
+	private LocalDateTime finishedAt;
+
+}
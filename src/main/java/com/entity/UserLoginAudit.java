@@ -6,6 +6,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,11 +17,14 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "user_login_audit")
+@Table(name = "user_login_audit", indexes = {
+		// active sessions of a user, newest first
+		@Index(name = "idx_login_audit_user_status_login", columnList = "user_id, status, login_time") })
 public class UserLoginAudit {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_login_audit_seq")
+	@SequenceGenerator(name = "user_login_audit_seq", sequenceName = "user_login_audit_seq", allocationSize = 50)
 	private Long id;
 
 	private Long userId;
@@ -6,22 +6,31 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "work_logs")
+@Table(name = "work_logs", indexes = {
+        // overlap checks, weekly grid, per-user listings; end_time makes it cover the interval index load,
+        // without which H2 prefers the user_id index it adds for the foreign key
+        @Index(name = "idx_work_logs_user_start_end", columnList = "user_id, start_time, end_time"),
+        // per-task logs and the task timeline. Exactly the foreign key column, so H2 uses it for the
+        // constraint instead of adding its own, which it would pick over a (task_id, start_time) index
+        @Index(name = "idx_work_logs_task", columnList = "task_id") })
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class WorkLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "work_logs_seq")
+    @SequenceGenerator(name = "work_logs_seq", sequenceName = "work_logs_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
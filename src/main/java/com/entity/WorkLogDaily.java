@@ -0,0 +1,45 @@
+package com.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Logged minutes per (user, task, day of the log's start), maintained alongside every work log write
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "work_log_daily", uniqueConstraints = @UniqueConstraint(name = "uk_work_log_daily_user_task_date", columnNames = {
+		"user_id", "task_id", "log_date" }), indexes = @Index(name = "idx_work_log_daily_user_date", columnList = "user_id, log_date"))
+public class WorkLogDaily {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "work_log_daily_seq")
+	@SequenceGenerator(name = "work_log_daily_seq", sequenceName = "work_log_daily_seq", allocationSize = 50)
+	private Long id;
+
+	@Column(name = "user_id", nullable = false)
+	private Long userId;
+
+	@Column(name = "task_id", nullable = false)
+	private Long taskId;
+
+	@Column(name = "log_date", nullable = false)
+	private LocalDate logDate;
+
+	private long totalMinutes;
+
+	private long logCount;
+
+}
@@ -26,6 +26,11 @@ public interface LeaveRepository extends JpaRepository<LeaveRequest, Long> {
         @Query("SELECT l FROM LeaveRequest l WHERE l.status = 'APPROVED' AND :date BETWEEN l.fromDate AND l.toDate")
         List<LeaveRequest> findActiveLeaves(@Param("date") java.time.LocalDate date);
 
+        // [id, userId, status, fromDate, toDate] of pending leaves and approved ones not yet over
+        @Query("SELECT l.id, l.user.id, l.status, l.fromDate, l.toDate FROM LeaveRequest l " +
+                        "WHERE l.status = 'PENDING' OR (l.status = 'APPROVED' AND l.toDate >= :date)")
+        List<Object[]> findOpenLeaveRows(@Param("date") java.time.LocalDate date);
+
         @Query("SELECT COUNT(l) > 0 FROM LeaveRequest l WHERE l.user.id = :userId " +
                         "AND l.status IN ('PENDING', 'APPROVED') " +
                         "AND (:toDate >= l.fromDate AND :fromDate <= l.toDate)")
@@ -24,8 +24,30 @@ public interface TaskDetailRepository extends JpaRepository<TaskDetail, Long> {
 
 	List<TaskDetail> findByTask_Id(Long taskId);
 
+	// Timeline sources. Rows: [id, status, startedAt, endedAt, comment]
+
+	@Query("""
+			SELECT td.id, td.status, td.startedAt, td.endedAt, td.comment FROM TaskDetail td
+			WHERE td.task.id = :taskId AND td.startedAt IS NOT NULL
+			""")
+	List<Object[]> findTimelineStarts(@Param("taskId") Long taskId);
+
+	@Query("""
+			SELECT td.id, td.status, td.startedAt, td.endedAt, td.comment FROM TaskDetail td
+			WHERE td.task.id = :taskId AND td.endedAt IS NOT NULL
+			""")
+	List<Object[]> findTimelineEnds(@Param("taskId") Long taskId);
+
 	List<TaskDetail> findByTask_IdIn(List<Long> taskIds);
 
+	// [taskId, startedAt, endedAt, status], grouped by task and in startedAt order within each
+	@Query("""
+			SELECT td.task.id, td.startedAt, td.endedAt, td.status FROM TaskDetail td
+			WHERE td.task.id IN :taskIds AND td.startedAt IS NOT NULL
+			ORDER BY td.task.id, td.startedAt, td.id
+			""")
+	List<Object[]> findStatusPeriods(@Param("taskIds") java.util.Collection<Long> taskIds);
+
 	boolean existsByTask_IdAndStatus(Long taskId, com.entity.Status status);
 
 }
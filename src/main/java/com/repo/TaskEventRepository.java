@@ -0,0 +1,22 @@
+package com.repo;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.entity.TaskEvent;
+
+public interface TaskEventRepository extends JpaRepository<TaskEvent, Long> {
+
+	@Query("SELECT COALESCE(MAX(e.seq), 0) FROM TaskEvent e WHERE e.taskId = :taskId")
+	long findMaxSeq(@Param("taskId") Long taskId);
+
+	// Newest first; both are a range scan of the (task_id, seq) unique index
+
+	List<TaskEvent> findByTaskIdOrderBySeqDesc(Long taskId);
+
+	List<TaskEvent> findByTaskIdAndSeqLessThanOrderBySeqDesc(Long taskId, long seq, Pageable page);
+}
@@ -4,10 +4,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import com.dto.TaskResponse;
 import com.entity.Task;
 
 import jakarta.validation.constraints.NotNull;
@@ -15,9 +18,73 @@ import jakarta.validation.constraints.NotNull;
 public interface TaskRepository extends JpaRepository<Task, Long> {
 	// List<Task> findByUser_Id(Long userId);
 
+	// Builds TaskResponse straight from columns; "reassigned" is an EXISTS probe
+	// instead of hydrating the task's TaskDetail history.
+	String TASK_RESPONSE_SELECT = """
+			SELECT new com.dto.TaskResponse(t.id, u.username, u.id, t.title, t.description, t.createdAt,
+			    t.status, t.completedAt, t.dueDate, t.comment,
+			    CASE WHEN EXISTS (SELECT d.id FROM TaskDetail d
+			                      WHERE d.task.id = t.id AND d.status = com.entity.Status.REASSIGN)
+			         THEN true ELSE false END)
+			FROM Task t JOIN t.user u
+			""";
+
+	@Query(TASK_RESPONSE_SELECT + " ORDER BY t.id")
+	List<TaskResponse> findAllTaskResponses();
+
+	@Query(TASK_RESPONSE_SELECT + " WHERE u.id = :userId ORDER BY t.id")
+	List<TaskResponse> findTaskResponsesByUserId(@Param("userId") Long userId);
+
+	@Query(TASK_RESPONSE_SELECT + " WHERE t.createdAt BETWEEN :fromDate AND :toDate ORDER BY t.id")
+	List<TaskResponse> findTaskResponsesByCreatedAtBetween(
+			@Param("fromDate") LocalDate fromDate,
+			@Param("toDate") LocalDate toDate);
+
+	@Query(TASK_RESPONSE_SELECT + " WHERE u.id IN :userIds AND t.createdAt BETWEEN :fromDate AND :toDate ORDER BY t.id")
+	List<TaskResponse> findTaskResponsesByUserIdInAndCreatedAtBetween(
+			@Param("userIds") List<Long> userIds,
+			@Param("fromDate") LocalDate fromDate,
+			@Param("toDate") LocalDate toDate);
+
+	// Keyset pages: rows after :afterId in id order, page size comes from the Pageable
+
+	@Query(TASK_RESPONSE_SELECT + " WHERE t.id > :afterId ORDER BY t.id")
+	List<TaskResponse> findTaskResponsesAfter(@Param("afterId") Long afterId, Pageable page);
+
+	@Query(TASK_RESPONSE_SELECT + " WHERE u.id = :userId AND t.id > :afterId ORDER BY t.id")
+	List<TaskResponse> findTaskResponsesByUserIdAfter(@Param("userId") Long userId,
+			@Param("afterId") Long afterId, Pageable page);
+
+	@Query(TASK_RESPONSE_SELECT
+			+ " WHERE t.createdAt BETWEEN :fromDate AND :toDate AND t.id > :afterId ORDER BY t.id")
+	List<TaskResponse> findTaskResponsesByCreatedAtBetweenAfter(
+			@Param("fromDate") LocalDate fromDate,
+			@Param("toDate") LocalDate toDate,
+			@Param("afterId") Long afterId, Pageable page);
+
+	@Query(TASK_RESPONSE_SELECT
+			+ " WHERE u.id IN :userIds AND t.createdAt BETWEEN :fromDate AND :toDate AND t.id > :afterId ORDER BY t.id")
+	List<TaskResponse> findTaskResponsesByUserIdInAndCreatedAtBetweenAfter(
+			@Param("userIds") List<Long> userIds,
+			@Param("fromDate") LocalDate fromDate,
+			@Param("toDate") LocalDate toDate,
+			@Param("afterId") Long afterId, Pageable page);
+
 	@Query("select t from Task t where t.user.id = :userId")
 	List<Task> fetchTasks(@Param("userId") Long userId);
 
+	// Timesheet grid rows [id, title, status]: the user's open tasks plus completed ones with logs in [from, to)
+	@Query("""
+			SELECT t.id, t.title, t.status FROM Task t
+			WHERE t.user.id = :userId
+			AND (t.status <> com.entity.Status.COMPLETED
+			     OR EXISTS (SELECT w.id FROM WorkLog w WHERE w.task.id = t.id AND w.user.id = :userId
+			                AND w.startTime >= :from AND w.startTime < :to))
+			ORDER BY t.id
+			""")
+	List<Object[]> findGridTasks(@Param("userId") Long userId, @Param("from") LocalDateTime from,
+			@Param("to") LocalDateTime to);
+
 	@Query("""
 			SELECT t FROM Task t
 			WHERE t.user.id IN :userIds
@@ -43,4 +110,36 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
 	long countByUserIdAndStatus(Long userId, com.entity.Status status);
 
 	long countByUserId(Long userId);
+
+	// [userId, status, count] rows; source of truth for the per-user status counters
+	@Query("SELECT t.user.id, t.status, COUNT(t) FROM Task t WHERE t.user IS NOT NULL GROUP BY t.user.id, t.status")
+	List<Object[]> countGroupedByUserAndStatus();
+
+	// Which of the given tasks belong to the user; validates a whole import chunk in one query
+	@Query("SELECT t.id FROM Task t WHERE t.user.id = :userId AND t.id IN :ids")
+	List<Long> findIdsOwnedBy(@Param("userId") Long userId, @Param("ids") java.util.Collection<Long> ids);
+
+	// Atomic in the database: concurrent writers on one task serialize on the row, nothing is lost
+	@Modifying
+	@Query("UPDATE Task t SET t.totalWorkedMinutes = COALESCE(t.totalWorkedMinutes, 0) + :minutes WHERE t.id = :taskId")
+	int addWorkedMinutes(@Param("taskId") Long taskId, @Param("minutes") long minutes);
+
+	// Tasks whose total differs from the sum of their work logs: [taskId, stored, actual]
+	@Query(value = """
+			SELECT t.id, t.total_worked_minutes, COALESCE(w.minutes, 0) FROM task t
+			LEFT JOIN (SELECT task_id, SUM(duration_minutes) AS minutes FROM work_logs GROUP BY task_id) w
+			    ON w.task_id = t.id
+			WHERE COALESCE(t.total_worked_minutes, -1) <> COALESCE(w.minutes, 0)
+			""", nativeQuery = true)
+	List<Object[]> findWorkedMinutesDrift();
+
+	// Sets the total to the sum of the task's work logs in one statement, only while it still holds
+	// :stored (-1 for null) as read by findWorkedMinutesDrift; 0 rows means a writer got there first
+	@Modifying
+	@Query(value = """
+			UPDATE task SET total_worked_minutes =
+			    (SELECT COALESCE(SUM(w.duration_minutes), 0) FROM work_logs w WHERE w.task_id = task.id)
+			WHERE id = :taskId AND COALESCE(total_worked_minutes, -1) = :stored
+			""", nativeQuery = true)
+	int resetWorkedMinutesFromLogs(@Param("taskId") Long taskId, @Param("stored") long stored);
 }
@@ -0,0 +1,52 @@
+package com.repo;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.entity.TimesheetImportJob;
+
+public interface TimesheetImportJobRepository extends JpaRepository<TimesheetImportJob, Long> {
+
+	Optional<TimesheetImportJob> findByUserIdAndContentHash(Long userId, String contentHash);
+
+	Optional<TimesheetImportJob> findByIdAndUserId(Long id, Long userId);
+
+	// Reuses a failed job for a new upload of the same file; 0 when it is not failed (any more)
+	@Modifying
+	@Transactional
+	@Query("""
+			UPDATE TimesheetImportJob j SET j.state = com.entity.ImportJobState.QUEUED, j.fileName = :fileName,
+			    j.totalRows = NULL, j.rowsDone = 0, j.rowsFailed = 0, j.message = NULL,
+			    j.createdAt = :now, j.startedAt = NULL, j.finishedAt = NULL
+			WHERE j.id = :id AND j.state = com.entity.ImportJobState.FAILED
+			""")
+	int requeue(@Param("id") Long id, @Param("fileName") String fileName, @Param("now") LocalDateTime now);
+
+	// Fails a job that has not finished; 0 when it is DONE or FAILED already, so a committed import is never
+	// reported as failed
+	@Modifying
+	@Transactional
+	@Query("""
+			UPDATE TimesheetImportJob j SET j.state = com.entity.ImportJobState.FAILED, j.message = :message,
+			    j.finishedAt = :now
+			WHERE j.id = :id AND j.state IN (com.entity.ImportJobState.QUEUED, com.entity.ImportJobState.RUNNING)
+			""")
+	int fail(@Param("id") Long id, @Param("message") String message, @Param("now") LocalDateTime now);
+
+	// Jobs a previous run left queued or running; their files are gone, so they can only fail
+	@Modifying
+	@Transactional
+	@Query("""
+			UPDATE TimesheetImportJob j SET j.state = com.entity.ImportJobState.FAILED,
+			    j.message = 'Interrupted by a server restart; nothing was imported. Upload the file again.',
+			    j.finishedAt = :now
+			WHERE j.state IN (com.entity.ImportJobState.QUEUED, com.entity.ImportJobState.RUNNING)
+			""")
+	int failUnfinished(@Param("now") LocalDateTime now);
+}
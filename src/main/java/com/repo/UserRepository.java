@@ -16,4 +16,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     long countByRole(com.entity.Role role);
 
     java.util.List<User> findByRole(com.entity.Role role);
+
+    java.util.List<User> findByActive(Boolean active);
+
+    // [id, role] pairs without loading whole users
+    @Query("SELECT u.id, u.role FROM User u")
+    java.util.List<Object[]> findIdsAndRoles();
+
+    @Query("SELECT u.id, u.username FROM User u WHERE u.id IN :ids")
+    java.util.List<Object[]> findUsernamesByIdIn(@Param("ids") java.util.Collection<Long> ids);
 }
@@ -0,0 +1,9 @@
+package com.repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.entity.UserTaskCounter;
+
+// Counter rows are incremented by TaskCounterService with a MERGE upsert
+public interface UserTaskCounterRepository extends JpaRepository<UserTaskCounter, Long> {
+}
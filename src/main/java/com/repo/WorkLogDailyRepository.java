@@ -0,0 +1,28 @@
+package com.repo;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.entity.WorkLogDaily;
+
+public interface WorkLogDailyRepository extends JpaRepository<WorkLogDaily, Long> {
+
+	@Query("""
+			SELECT d FROM WorkLogDaily d
+			WHERE d.userId = :userId AND d.logDate BETWEEN :fromDate AND :toDate
+			ORDER BY d.logDate, d.taskId
+			""")
+	List<WorkLogDaily> findByUserIdAndLogDateBetween(@Param("userId") Long userId,
+			@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+	// [taskId, totalMinutes, logCount] per task, all time
+	@Query("""
+			SELECT d.taskId, SUM(d.totalMinutes), SUM(d.logCount) FROM WorkLogDaily d
+			WHERE d.userId = :userId GROUP BY d.taskId ORDER BY d.taskId
+			""")
+	List<Object[]> sumByTaskForUser(@Param("userId") Long userId);
+}
@@ -2,7 +2,10 @@ package com.repo;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.entity.WorkLog;
@@ -11,8 +14,46 @@ import com.entity.WorkLog;
 public interface WorkLogRepository extends JpaRepository<WorkLog, Long> {
     List<WorkLog> findByUserId(Long userId);
 
+    long countByUserId(Long userId);
+
     List<WorkLog> findByTaskId(Long taskId);
 
+    // Timeline source. Rows: [id, userId, startTime, durationMinutes, comment]
+    @Query("""
+            SELECT w.id, w.user.id, w.startTime, w.durationMinutes, w.comment FROM WorkLog w
+            WHERE w.task.id = :taskId AND w.startTime IS NOT NULL
+            """)
+    List<Object[]> findTimelineLogs(@Param("taskId") Long taskId);
+
+    // A user's logs for the admin view, newest first, rows before (:ts, :id).
+    // Rows: [id, taskId, taskTitle, startTime, endTime, durationMinutes, comment]
+    @Query("""
+            SELECT w.id, t.id, t.title, w.startTime, w.endTime, w.durationMinutes, w.comment
+            FROM WorkLog w JOIN w.task t
+            WHERE w.user.id = :userId AND w.startTime IS NOT NULL
+            AND (w.startTime < :ts OR (w.startTime = :ts AND w.id < :id))
+            ORDER BY w.startTime DESC, w.id DESC
+            """)
+    List<Object[]> findUserLogRows(@Param("userId") Long userId, @Param("ts") java.time.LocalDateTime ts,
+            @Param("id") Long id, Pageable page);
+
+    // [startTime, endTime] of every log of the user, by start; source of WorkLogIntervalIndex
+    @Query("""
+            SELECT w.startTime, w.endTime FROM WorkLog w
+            WHERE w.user.id = :userId AND w.startTime IS NOT NULL AND w.endTime IS NOT NULL
+            ORDER BY w.startTime
+            """)
+    List<Object[]> findIntervalsByUserId(@Param("userId") Long userId);
+
+    // Timesheet grid source: [taskId, startTime, durationMinutes, comment] of logs starting in [from, to)
+    @Query("""
+            SELECT w.task.id, w.startTime, w.durationMinutes, w.comment FROM WorkLog w
+            WHERE w.user.id = :userId AND w.startTime >= :from AND w.startTime < :to
+            ORDER BY w.startTime, w.id
+            """)
+    List<Object[]> findGridRows(@Param("userId") Long userId, @Param("from") java.time.LocalDateTime from,
+            @Param("to") java.time.LocalDateTime to);
+
     List<WorkLog> findByUserIdAndStartTimeBetween(Long userId, java.time.LocalDateTime start,
             java.time.LocalDateTime end);
 }
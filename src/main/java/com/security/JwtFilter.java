@@ -3,15 +3,20 @@ package com.security;
 import java.io.IOException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.entity.Role;
+import com.entity.User;
 import com.service.CustomUserDetailsService;
+import com.service.SessionRegistry;
 import com.util.JwtUtil;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,6 +31,16 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    // "claims" builds the principal from the verified token, "database" reloads the user
+    @Value("${jwt.principal-mode:claims}")
+    private String principalMode;
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getServletPath();
@@ -74,19 +89,26 @@ public class JwtFilter extends OncePerRequestFilter {
             }
 
             try {
-                String username = jwtUtil.extractUsername(token);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                System.out.println("DEBUG: JwtFilter loaded user: " + username);
-                System.out.println("DEBUG: Authorities: " + userDetails.getAuthorities());
-
-                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities());
-
-                SecurityContextHolder.getContext().setAuthentication(auth);
+                // Verify once per request and attach the claims for later layers
+                Claims claims = jwtUtil.extractAllClaims(token);
+                request.setAttribute(JwtUtil.TOKEN_ATTRIBUTE, token);
+                request.setAttribute(JwtUtil.CLAIMS_ATTRIBUTE, claims);
+
+                Long userId = claims.get("userId", Long.class);
+                // Deactivated users / tokens issued before a status change stay unauthenticated
+                if (!revocationRegistry.isRevoked(userId, claims.getIssuedAt())) {
+                    UserDetails userDetails = "database".equalsIgnoreCase(principalMode)
+                            ? userDetailsService.loadUserByUsername(claims.getSubject())
+                            : principalFromClaims(claims);
+
+                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                            userDetails,
+                            null,
+                            userDetails.getAuthorities());
+
+                    SecurityContextHolder.getContext().setAuthentication(auth);
+                    sessionRegistry.touch(userId);
+                }
             } catch (Exception e) {
                 System.out.println("DEBUG: JwtFilter error: " + e.getMessage());
                 // Token invalid - allow request to proceed (will likely fail at endpoint
@@ -98,4 +120,13 @@ public class JwtFilter extends OncePerRequestFilter {
         chain.doFilter(request, response);
     }
 
+    private CustomUserDetails principalFromClaims(Claims claims) {
+        User user = new User();
+        user.setId(claims.get("userId", Long.class));
+        user.setUsername(claims.getSubject());
+        user.setEmail(claims.get("email", String.class));
+        user.setRole(Role.valueOf(claims.get("role", String.class)));
+        return new CustomUserDetails(user);
+    }
+
 }
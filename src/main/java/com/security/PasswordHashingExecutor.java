@@ -0,0 +1,135 @@
+package com.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fixed-size pool that runs BCrypt-heavy login authentication off the Tomcat
+ * threads. The wait queue is bounded; when it is full the submit fails with
+ * RejectedExecutionException so the caller can answer 503 immediately instead
+ * of piling more hashing work onto the CPU.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+	@Value("${auth.hash-pool.size:0}")
+	private int poolSize;
+
+	@Value("${auth.hash-pool.queue-capacity:50}")
+	private int queueCapacity;
+
+	@Value("${auth.hash-pool.retry-after-seconds:2}")
+	private int retryAfterSeconds;
+
+	private ThreadPoolExecutor executor;
+
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder totalQueueNanos = new LongAdder();
+	private final LongAdder totalHashNanos = new LongAdder();
+	private final AtomicLong maxQueueNanos = new AtomicLong();
+	private final AtomicLong maxHashNanos = new AtomicLong();
+
+	@PostConstruct
+	void start() {
+		int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+		AtomicInteger seq = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity),
+				r -> {
+					Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				},
+				new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	@PreDestroy
+	void stop() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Runs the task on the hashing pool and waits for it. Runtime exceptions
+	 * from the task (e.g. BadCredentialsException) are rethrown unchanged.
+	 *
+	 * @throws RejectedExecutionException when the pool and its queue are full
+	 */
+	public <T> T execute(Callable<T> task) {
+		long submittedAt = System.nanoTime();
+		Future<T> future;
+		try {
+			future = executor.submit(() -> {
+				long startedAt = System.nanoTime();
+				record(totalQueueNanos, maxQueueNanos, startedAt - submittedAt);
+				try {
+					return task.call();
+				} finally {
+					record(totalHashNanos, maxHashNanos, System.nanoTime() - startedAt);
+					completed.increment();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			rejected.increment();
+			throw e;
+		}
+
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+			throw new IllegalStateException("Interrupted while waiting for authentication", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException re) {
+				throw re;
+			}
+			if (cause instanceof Error err) {
+				throw err;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	public int getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+
+	private void record(LongAdder total, AtomicLong max, long nanos) {
+		total.add(nanos);
+		max.accumulateAndGet(nanos, Math::max);
+	}
+
+	public Map<String, Object> getMetrics() {
+		long done = completed.sum();
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("poolSize", executor.getMaximumPoolSize());
+		m.put("activeThreads", executor.getActiveCount());
+		m.put("queueDepth", executor.getQueue().size());
+		m.put("queueCapacity", queueCapacity);
+		m.put("completed", done);
+		m.put("rejected", rejected.sum());
+		m.put("avgQueueTimeMs", done == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalQueueNanos.sum() / done));
+		m.put("maxQueueTimeMs", TimeUnit.NANOSECONDS.toMillis(maxQueueNanos.get()));
+		m.put("avgHashTimeMs", done == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalHashNanos.sum() / done));
+		m.put("maxHashTimeMs", TimeUnit.NANOSECONDS.toMillis(maxHashNanos.get()));
+		return m;
+	}
+}
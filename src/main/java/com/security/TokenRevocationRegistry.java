@@ -0,0 +1,77 @@
+package com.security;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.entity.User;
+import com.repo.UserRepository;
+
+/**
+ * In-memory view of which tokens are still acceptable per user, so JwtFilter
+ * can trust the token claims without loading the user on every request.
+ *
+ * Each entry maps a user id to the minimum "issued at" (epoch seconds) a
+ * token must have. Deactivated users map to Long.MAX_VALUE, which rejects
+ * every token they hold.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+	private static final long ALL_TOKENS = Long.MAX_VALUE;
+
+	private final Map<Long, Long> minIssuedAt = new ConcurrentHashMap<>();
+
+	private final UserRepository userRepository;
+
+	public TokenRevocationRegistry(UserRepository userRepository) {
+		this.userRepository = userRepository;
+	}
+
+	// Inactive users survive a restart
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadInactiveUsers() {
+		for (User user : userRepository.findByActive(false)) {
+			minIssuedAt.put(user.getId(), ALL_TOKENS);
+		}
+	}
+
+	public boolean isRevoked(Long userId, Date issuedAt) {
+		if (userId == null) {
+			return true;
+		}
+		Long min = minIssuedAt.get(userId);
+		if (min == null) {
+			return false;
+		}
+		if (min == ALL_TOKENS || issuedAt == null) {
+			return true;
+		}
+		return issuedAt.getTime() / 1000 < min;
+	}
+
+	/**
+	 * Publishes a user's active flag. Deactivation revokes every token; on
+	 * reactivation only tokens issued from now on are accepted, so tokens from
+	 * before the deactivation stay dead.
+	 */
+	public void userStatusChanged(Long userId, boolean active) {
+		if (active) {
+			minIssuedAt.put(userId, System.currentTimeMillis() / 1000);
+		} else {
+			minIssuedAt.put(userId, ALL_TOKENS);
+		}
+	}
+
+	public void userCreated(User user) {
+		if (Boolean.FALSE.equals(user.getActive())) {
+			minIssuedAt.put(user.getId(), ALL_TOKENS);
+		} else {
+			minIssuedAt.remove(user.getId());
+		}
+	}
+}
@@ -41,7 +41,16 @@ public class AdminService {
 	private EmailService mailService;
 
 	@Autowired
-	private com.repo.LeaveRepository leaveRepo;
+	private com.security.TokenRevocationRegistry revocationRegistry;
+
+	@Autowired
+	private TaskCounterService counterService;
+
+	@Autowired
+	private TaskEventService eventService;
+
+	@Autowired
+	private AdminSummaryService summaryService;
 
 	public List<TaskResponse> getTasks(@NotNull LocalDate fromDate, @NotNull LocalDate toDate,
 			List<Long> userIds) {
@@ -56,6 +65,7 @@ public class AdminService {
 
 	}
 
+	@org.springframework.transaction.annotation.Transactional
 	public ResponseEntity<?> assignTask(AssignTaskDto request, Long adminId) {
 		User user = userRepo.findById(request.getUserId()).orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -74,6 +84,8 @@ public class AdminService {
 		task.setStatus(Status.TO_DO);
 		task.setAssignedBy(adminId);
 		taskRepo.save(task);
+		String adminName = userRepo.findById(adminId).map(User::getUsername).orElse(null);
+		eventService.created(task.getId(), adminId, adminName, user.getId(), task.getDescription());
 
 		String emailSubject = "📝 New Task Assigned: " + task.getTitle();
 
@@ -113,6 +125,9 @@ public class AdminService {
 			User res = userRepo.save(user);
 
 			if (res != null) {
+				revocationRegistry.userCreated(res);
+				summaryService.userCreated(res);
+
 				// Send Welcome Email
 				String subject = "Welcome to Task Tracker - Your Account Details";
 				String serverUrl = getServerUrl();
@@ -196,99 +211,110 @@ public class AdminService {
 	@Autowired
 	private com.repo.TaskDetailRepository taskDetailRepo;
 
+	// Upper bound for the log query: every row sorts after this key
+	private static final LocalDateTime TOP = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+	@org.springframework.beans.factory.annotation.Value("${tasks.page.default-size:100}")
+	private int defaultPageSize;
+
+	@org.springframework.beans.factory.annotation.Value("${tasks.page.max-size:1000}")
+	private int maxPageSize;
+
 	@org.springframework.transaction.annotation.Transactional(readOnly = true)
 	public List<com.dto.WorkLogDto> getUserWorkLogs(Long userId) {
-		List<com.entity.WorkLog> logs = workLogRepo.findByUserId(userId);
+		return toWorkLogDtos(
+				workLogRepo.findUserLogRows(userId, TOP, Long.MAX_VALUE, org.springframework.data.domain.Pageable.unpaged()));
+	}
 
-		if (logs.isEmpty()) {
-			return java.util.Collections.emptyList();
+	/** Keyset page of a user's logs, newest first; the cursor is the (startTime, id) of the last row. */
+	@org.springframework.transaction.annotation.Transactional(readOnly = true)
+	public com.dto.CursorPage<com.dto.WorkLogDto> getUserWorkLogPage(Long userId, String cursor, Integer size) {
+		LocalDateTime ts = TOP;
+		long id = Long.MAX_VALUE;
+		if (cursor != null && !cursor.isBlank()) {
+			String[] parts = com.util.CursorCodec.decode(cursor, 2);
+			try {
+				ts = LocalDateTime.parse(parts[0]);
+				id = Long.parseLong(parts[1]);
+			} catch (RuntimeException e) {
+				throw new IllegalArgumentException("Invalid cursor");
+			}
 		}
+		int n = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
 
-		// Batch fetch details
-		List<Long> taskIds = logs.stream().map(l -> l.getTask().getId()).distinct().toList();
-		List<com.entity.TaskDetail> allDetails = taskDetailRepo.findByTask_IdIn(taskIds);
-		java.util.Map<Long, List<com.entity.TaskDetail>> detailsByTask = allDetails.stream()
-				.collect(java.util.stream.Collectors.groupingBy(d -> d.getTask().getId()));
+		List<Object[]> rows = workLogRepo.findUserLogRows(userId, ts, id,
+				org.springframework.data.domain.PageRequest.of(0, n + 1));
+		if (rows.size() <= n) {
+			return new com.dto.CursorPage<>(toWorkLogDtos(rows), null);
+		}
+		rows = rows.subList(0, n);
+		Object[] last = rows.get(n - 1);
+		return new com.dto.CursorPage<>(toWorkLogDtos(rows), com.util.CursorCodec.encode(last[3], last[0]));
+	}
 
-		// Sort details inside each list
-		detailsByTask.values()
-				.forEach(list -> list.sort(java.util.Comparator.comparing(com.entity.TaskDetail::getStartedAt)));
+	// Rows come from findUserLogRows, already in display order; the status of each log
+	// at its start time is looked up in its task's status periods
+	private List<com.dto.WorkLogDto> toWorkLogDtos(List<Object[]> rows) {
+		if (rows.isEmpty()) {
+			return java.util.Collections.emptyList();
+		}
+		java.util.Set<Long> taskIds = new java.util.HashSet<>();
+		for (Object[] r : rows) {
+			taskIds.add((Long) r[1]);
+		}
+		java.util.Map<Long, TaskStatusTimeline> timelines = new java.util.HashMap<>();
+		for (Object[] p : taskDetailRepo.findStatusPeriods(taskIds)) {
+			timelines.computeIfAbsent((Long) p[0], k -> new TaskStatusTimeline()).add((LocalDateTime) p[1],
+					(LocalDateTime) p[2], (Status) p[3]);
+		}
 
-		return logs.stream().map(log -> {
+		TaskStatusTimeline none = new TaskStatusTimeline();
+		List<com.dto.WorkLogDto> dtos = new java.util.ArrayList<>(rows.size());
+		for (Object[] r : rows) {
 			com.dto.WorkLogDto dto = new com.dto.WorkLogDto();
-			dto.setId(log.getId());
-			dto.setTaskId(log.getTask().getId());
-			dto.setTaskTitle(log.getTask().getTitle());
-			dto.setStartTime(log.getStartTime());
-			dto.setEndTime(log.getEndTime());
-			dto.setDurationMinutes(log.getDurationMinutes());
-
-			// Infer Status
-			String statusLabel = "To Do"; // Default
-			List<com.entity.TaskDetail> details = detailsByTask.getOrDefault(log.getTask().getId(),
-					java.util.Collections.emptyList());
-
-			LocalDateTime logTime = log.getStartTime();
-			com.entity.TaskDetail effectiveDetail = null;
-
-			for (com.entity.TaskDetail d : details) {
-				if (!d.getStartedAt().isAfter(logTime)) {
-					effectiveDetail = d;
-				} else {
-					break;
-				}
-			}
-
-			if (effectiveDetail != null) {
-				if (effectiveDetail.getStatus() == com.entity.Status.IN_PROGRESS) {
-					if (effectiveDetail.getEndedAt() == null || !logTime.isAfter(effectiveDetail.getEndedAt())) {
-						statusLabel = "In Progress";
-					} else {
-						statusLabel = "Under Review";
-					}
-				} else if (effectiveDetail.getStatus() == com.entity.Status.REASSIGN) {
-					statusLabel = "Reassigned";
-				} else {
-					statusLabel = effectiveDetail.getStatus().toString();
-				}
-			}
-
-			dto.setComment(log.getComment() + " [" + statusLabel + "]");
-			return dto;
-		}).sorted((a, b) -> b.getStartTime().compareTo(a.getStartTime())) // Sort DESC by time
-				.toList();
+			dto.setId((Long) r[0]);
+			dto.setTaskId((Long) r[1]);
+			dto.setTaskTitle((String) r[2]);
+			dto.setStartTime((LocalDateTime) r[3]);
+			dto.setEndTime((LocalDateTime) r[4]);
+			dto.setDurationMinutes((Long) r[5]);
+			String label = timelines.getOrDefault(dto.getTaskId(), none).labelAt(dto.getStartTime());
+			dto.setComment(r[6] + " [" + label + "]");
+			dtos.add(dto);
+		}
+		return dtos;
 	}
 
 	public ResponseEntity<?> updateUserStatus(Long userId, boolean active) {
 		User user = userRepo.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
 		user.setActive(active);
 		userRepo.save(user);
+		revocationRegistry.userStatusChanged(userId, active);
 		return ResponseEntity.ok("User status updated");
 	}
 
 	public com.dto.UserTaskStatsDto getUserTaskStats(Long userId) {
 		User user = userRepo.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-		List<Task> tasks = taskRepo.findByUserId(userId);
+		long[] counts = counterService.snapshot(userId);
 
 		com.dto.UserTaskStatsDto stats = new com.dto.UserTaskStatsDto();
 		stats.setUserId(user.getId());
 		stats.setUsername(user.getUsername());
-		stats.setTotalTasks(tasks.size());
 
-		int pending = 0;
-		int completed = 0;
+		int total = 0;
 		java.util.Map<String, Integer> breakdown = new java.util.HashMap<>();
 
-		for (Task t : tasks) {
-			String s = t.getStatus().name();
-			breakdown.put(s, breakdown.getOrDefault(s, 0) + 1);
-			if (t.getStatus() == com.entity.Status.COMPLETED) {
-				completed++;
-			} else {
-				pending++;
+		for (Status s : Status.values()) {
+			int n = (int) counts[s.ordinal()];
+			if (n > 0) {
+				breakdown.put(s.name(), n);
 			}
+			total += n;
 		}
+		int completed = (int) counts[Status.COMPLETED.ordinal()];
+		int pending = total - completed;
 
+		stats.setTotalTasks(total);
 		stats.setPendingTasks(pending);
 		stats.setCompletedTasks(completed);
 		stats.setStatusBreakdown(breakdown);
@@ -297,72 +323,6 @@ public class AdminService {
 	}
 
 	public com.dto.AdminSummaryDto getAdminSummary() {
-		List<User> allUsers = userRepo.findAll();
-		java.util.List<Long> totalIds = allUsers.stream().map(User::getId).toList();
-
-		java.util.List<Long> activeIds = auditRepo.findByStatus("ACTIVE").stream()
-				.map(a -> a.getUserId())
-				.distinct()
-				.toList();
-
-		java.util.List<Long> noTaskIds = allUsers.stream()
-				.filter(u -> u.getRole().equals("ROLE_USER"))
-				.filter(u -> !taskRepo.existsByUserId(u.getId()))
-				.map(User::getId)
-				.toList();
-
-		List<Task> allTasks = taskRepo.findAll();
-		long totalTasks = allTasks.size();
-		long todoCount = allTasks.stream().filter(t -> t.getStatus() == com.entity.Status.TO_DO).count();
-		long progressCount = allTasks.stream().filter(t -> t.getStatus() == com.entity.Status.IN_PROGRESS).count();
-		long reviewCount = allTasks.stream().filter(t -> t.getStatus() == com.entity.Status.REVIEW).count();
-		long completedCount = allTasks.stream().filter(t -> t.getStatus() == com.entity.Status.COMPLETED).count();
-
-		java.util.List<Long> todoIds = allTasks.stream()
-				.filter(t -> t.getStatus() == com.entity.Status.TO_DO)
-				.map(t -> t.getUser() != null ? t.getUser().getId() : null)
-				.filter(id -> id != null).distinct().toList();
-
-		java.util.List<Long> progressIds = allTasks.stream()
-				.filter(t -> t.getStatus() == com.entity.Status.IN_PROGRESS)
-				.map(t -> t.getUser() != null ? t.getUser().getId() : null)
-				.filter(id -> id != null).distinct().toList();
-
-		java.util.List<Long> reviewIds = allTasks.stream()
-				.filter(t -> t.getStatus() == com.entity.Status.REVIEW)
-				.map(t -> t.getUser() != null ? t.getUser().getId() : null)
-				.filter(id -> id != null).distinct().toList();
-
-		java.util.List<Long> completedIds = allTasks.stream()
-				.filter(t -> t.getStatus() == com.entity.Status.COMPLETED)
-				.map(t -> t.getUser() != null ? t.getUser().getId() : null)
-				.filter(id -> id != null).distinct().toList();
-
-		java.util.List<com.entity.LeaveRequest> activeLeaves = leaveRepo.findActiveLeaves(LocalDate.now());
-		long activeLeaveCount = activeLeaves.size();
-		java.util.List<Long> activeLeaveUserIds = activeLeaves.stream()
-				.map(l -> l.getUser().getId())
-				.distinct()
-				.toList();
-
-		return new com.dto.AdminSummaryDto(
-				totalIds.size(),
-				activeIds.size(),
-				noTaskIds.size(),
-				totalIds,
-				activeIds,
-				noTaskIds,
-				totalTasks,
-				todoCount,
-				progressCount,
-				reviewCount,
-				completedCount,
-				todoIds,
-				progressIds,
-				reviewIds,
-				completedIds,
-				leaveRepo.findAllPending().size(),
-				activeLeaveCount,
-				activeLeaveUserIds);
+		return summaryService.getSummary();
 	}
 }
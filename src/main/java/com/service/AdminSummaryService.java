@@ -0,0 +1,271 @@
+package com.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.dto.AdminSummaryDto;
+import com.entity.LeaveRequest;
+import com.entity.Role;
+import com.entity.Status;
+import com.entity.User;
+import com.repo.LeaveRepository;
+import com.repo.UserRepository;
+import com.util.TransactionHooks;
+
+/**
+ * In-memory aggregate behind /admin/summary. Task numbers come from
+ * TaskCounterService, sessions from SessionRegistry; users and open leaves
+ * are tracked here from createUser and the leave service. The built DTO is
+ * cached until one of its inputs changes, and a scheduled recompute reloads
+ * everything from the database to correct drift.
+ */
+@Service
+public class AdminSummaryService {
+
+	private record LeaveEntry(Long userId, String status, LocalDate fromDate, LocalDate toDate) {
+	}
+
+	private record Cached(long ownVersion, long counterVersion, LocalDate day, AdminSummaryDto dto) {
+	}
+
+	// userId -> role
+	private volatile Map<Long, Role> users = new ConcurrentHashMap<>();
+
+	// leaveId -> leave, only PENDING and APPROVED ones
+	private volatile Map<Long, LeaveEntry> openLeaves = new ConcurrentHashMap<>();
+
+	private final AtomicLong version = new AtomicLong();
+	private volatile Cached cached;
+
+	// Counter mismatches of the last recompute and the counter version they were seen at
+	private List<String> suspectedDrift;
+	private long suspectedAtVersion;
+
+	private final UserRepository userRepo;
+	private final LeaveRepository leaveRepo;
+	private final TaskCounterService counterService;
+	private final SessionRegistry sessionRegistry;
+
+	public AdminSummaryService(UserRepository userRepo, LeaveRepository leaveRepo,
+			TaskCounterService counterService, SessionRegistry sessionRegistry) {
+		this.userRepo = userRepo;
+		this.leaveRepo = leaveRepo;
+		this.counterService = counterService;
+		this.sessionRegistry = sessionRegistry;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		reload();
+	}
+
+	public void userCreated(User user) {
+		Long id = user.getId();
+		Role role = Role.valueOf(user.getRole());
+		TransactionHooks.afterCommit(() -> apply(() -> users.put(id, role)));
+	}
+
+	/** Call after a leave request has been saved with its new status. */
+	public void leaveChanged(LeaveRequest leave) {
+		Long id = leave.getId();
+		LeaveEntry entry = new LeaveEntry(leave.getUser().getId(), leave.getStatus(), leave.getFromDate(),
+				leave.getToDate());
+		TransactionHooks.afterCommit(() -> apply(() -> {
+			if ("PENDING".equals(entry.status()) || "APPROVED".equals(entry.status())) {
+				openLeaves.put(id, entry);
+			} else {
+				openLeaves.remove(id);
+			}
+		}));
+	}
+
+	public AdminSummaryDto getSummary() {
+		LocalDate today = LocalDate.now();
+		Cached c = cached;
+		long own = version.get();
+		long counters = counterService.version();
+		if (c == null || c.ownVersion() != own || c.counterVersion() != counters || !c.day().equals(today)) {
+			c = new Cached(own, counters, today, build(today));
+			cached = c;
+		}
+		return copyWithSessions(c.dto());
+	}
+
+	/**
+	 * Reloads users and open leaves from the database and rebuilds the task
+	 * counters if they disagree with the task table.
+	 *
+	 * Counters catch up after commit, so a write committing during the check
+	 * shows up as a mismatch that is gone a moment later. Only a mismatch seen
+	 * unchanged on two runs, with no counter update in between, is drift; one
+	 * that keeps moving is reported and left to the next run.
+	 */
+	@Scheduled(initialDelayString = "${admin.summary.recompute-interval-ms:300000}",
+			fixedDelayString = "${admin.summary.recompute-interval-ms:300000}")
+	public void recompute() {
+		try {
+			reload();
+			long counters = counterService.version();
+			List<String> mismatches = counterService.check();
+			if (mismatches.isEmpty() || counterService.version() != counters) {
+				suspectedDrift = null;
+			} else if (mismatches.equals(suspectedDrift) && suspectedAtVersion == counters) {
+				System.err.println("Task counters drifted (" + mismatches.size() + " mismatches), rebuilding");
+				counterService.rebuild();
+				suspectedDrift = null;
+			} else {
+				System.err.println("Task counters disagree with the task table (" + mismatches.size()
+						+ " mismatches), checking again on the next run");
+				suspectedDrift = mismatches;
+				suspectedAtVersion = counters;
+			}
+		} catch (Exception e) {
+			System.err.println("Admin summary recompute failed: " + e.getMessage());
+		}
+	}
+
+	private void reload() {
+		long before = version.get();
+
+		Map<Long, Role> freshUsers = new ConcurrentHashMap<>();
+		for (Object[] row : userRepo.findIdsAndRoles()) {
+			freshUsers.put((Long) row[0], (Role) row[1]);
+		}
+
+		Map<Long, LeaveEntry> freshLeaves = new ConcurrentHashMap<>();
+		for (Object[] row : leaveRepo.findOpenLeaveRows(LocalDate.now())) {
+			freshLeaves.put((Long) row[0],
+					new LeaveEntry((Long) row[1], (String) row[2], (LocalDate) row[3], (LocalDate) row[4]));
+		}
+
+		// An event landed while we were reading: keep the incremental state, the next run catches up
+		synchronized (this) {
+			if (version.get() != before) {
+				return;
+			}
+			users = freshUsers;
+			openLeaves = freshLeaves;
+			version.incrementAndGet();
+		}
+	}
+
+	private AdminSummaryDto build(LocalDate today) {
+		List<Long> totalIds = new ArrayList<>(new TreeSet<>(users.keySet()));
+
+		long[] totals = new long[Status.values().length];
+		List<Long> todoIds = new ArrayList<>();
+		List<Long> progressIds = new ArrayList<>();
+		List<Long> reviewIds = new ArrayList<>();
+		List<Long> completedIds = new ArrayList<>();
+		TreeSet<Long> withTasks = new TreeSet<>();
+
+		counterService.forEachUser((userId, c) -> {
+			long sum = 0;
+			for (int i = 0; i < c.length; i++) {
+				totals[i] += c[i];
+				sum += c[i];
+			}
+			if (sum > 0) {
+				withTasks.add(userId);
+			}
+			if (c[Status.TO_DO.ordinal()] > 0)
+				todoIds.add(userId);
+			if (c[Status.IN_PROGRESS.ordinal()] > 0)
+				progressIds.add(userId);
+			if (c[Status.REVIEW.ordinal()] > 0)
+				reviewIds.add(userId);
+			if (c[Status.COMPLETED.ordinal()] > 0)
+				completedIds.add(userId);
+		});
+
+		List<Long> noTaskIds = new ArrayList<>();
+		for (Long id : totalIds) {
+			if (users.get(id) == Role.ROLE_USER && !withTasks.contains(id)) {
+				noTaskIds.add(id);
+			}
+		}
+
+		long pending = 0;
+		long onLeave = 0;
+		TreeSet<Long> onLeaveIds = new TreeSet<>();
+		for (LeaveEntry l : openLeaves.values()) {
+			if ("PENDING".equals(l.status())) {
+				pending++;
+			} else if (l.fromDate() != null && l.toDate() != null
+					&& !today.isBefore(l.fromDate()) && !today.isAfter(l.toDate())) {
+				onLeave++;
+				onLeaveIds.add(l.userId());
+			}
+		}
+
+		long totalTasks = 0;
+		for (long t : totals) {
+			totalTasks += t;
+		}
+
+		return new AdminSummaryDto(
+				totalIds.size(),
+				0,
+				noTaskIds.size(),
+				List.copyOf(totalIds),
+				List.of(),
+				List.copyOf(noTaskIds),
+				totalTasks,
+				totals[Status.TO_DO.ordinal()],
+				totals[Status.IN_PROGRESS.ordinal()],
+				totals[Status.REVIEW.ordinal()],
+				totals[Status.COMPLETED.ordinal()],
+				sorted(todoIds),
+				sorted(progressIds),
+				sorted(reviewIds),
+				sorted(completedIds),
+				pending,
+				onLeave,
+				List.copyOf(onLeaveIds));
+	}
+
+	// Sessions change on every login/logout, so they are filled in per call instead of invalidating the cache
+	private AdminSummaryDto copyWithSessions(AdminSummaryDto d) {
+		List<Long> activeIds = sessionRegistry.activeUserIds();
+		return new AdminSummaryDto(
+				d.getTotalUsers(),
+				activeIds.size(),
+				d.getUsersWithoutTasks(),
+				d.getTotalUserIds(),
+				activeIds,
+				d.getNoTaskUserIds(),
+				d.getTotalTasks(),
+				d.getTodoTasks(),
+				d.getInProgressTasks(),
+				d.getReviewTasks(),
+				d.getCompletedTasks(),
+				d.getTodoUserIds(),
+				d.getInProgressUserIds(),
+				d.getReviewUserIds(),
+				d.getCompletedUserIds(),
+				d.getPendingLeaveRequests(),
+				d.getUsersOnLeaveToday(),
+				d.getUsersOnLeaveIds());
+	}
+
+	// Serialized with the swap in reload() so an update never lands in a map that is being replaced
+	private synchronized void apply(Runnable change) {
+		change.run();
+		version.incrementAndGet();
+	}
+
+	private static List<Long> sorted(List<Long> ids) {
+		ids.sort(null);
+		return List.copyOf(ids);
+	}
+}
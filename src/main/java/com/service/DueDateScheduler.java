@@ -0,0 +1,298 @@
+package com.service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.entity.Status;
+import com.entity.TaskEvent;
+import com.util.TransactionHooks;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Due-date reminders and overdue detection without scanning the task table.
+ * Every open task with a due date gets up to two timers on a delay queue: a
+ * reminder reminder-lead-hours before the due date ends, and a breach when it
+ * has passed. Open tasks are loaded once at startup; afterwards the task
+ * events (created, completed, reassigned, reopened) keep the timers current.
+ *
+ * A firing timer re-reads its one task, so a stale timer only ever skips.
+ * Thresholds that passed while the application was down are not sent again
+ * on startup; overdue tasks are still reported by getOverdue.
+ */
+@Service
+public class DueDateScheduler implements TaskEventListener {
+
+	private static final String TASK_SQL = """
+			SELECT t.title, t.due_date, t.status, u.username, u.email, a.email AS admin_email
+			FROM task t JOIN users u ON u.id = t.user_id LEFT JOIN users a ON a.id = t.assigned_by
+			WHERE t.id = ?
+			""";
+
+	private static final Object PENDING_KEY = new Object();
+
+	private static final class Timers {
+		final LocalDate dueDate;
+		ScheduledFuture<?> reminder;
+		ScheduledFuture<?> breach;
+		volatile boolean overdue;
+
+		Timers(LocalDate dueDate) {
+			this.dueDate = dueDate;
+		}
+	}
+
+	private record TaskInfo(String title, LocalDate dueDate, Status status, String username, String email,
+			String adminEmail) {
+	}
+
+	// taskId -> timers; an overdue task stays here until it is completed
+	private final Map<Long, Timers> timers = new ConcurrentHashMap<>();
+
+	private final LongAdder remindersSent = new LongAdder();
+	private final LongAdder breachesSent = new LongAdder();
+	private final LongAdder skipped = new LongAdder();
+
+	private ScheduledThreadPoolExecutor executor;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final EmailService mailService;
+
+	@Value("${due-dates.reminder-lead-hours:24}")
+	private long reminderLeadHours;
+
+	@Value("${due-dates.pool-size:1}")
+	private int poolSize;
+
+	public DueDateScheduler(JdbcTemplate jdbcTemplate, EmailService mailService) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.mailService = mailService;
+	}
+
+	@PostConstruct
+	void start() {
+		AtomicInteger seq = new AtomicInteger();
+		executor = new ScheduledThreadPoolExecutor(Math.max(1, poolSize), r -> {
+			Thread t = new Thread(r, "due-date-" + seq.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		// Cancelled timers leave the queue at once, so its size is the number of pending timers
+		executor.setRemoveOnCancelPolicy(true);
+	}
+
+	@PreDestroy
+	void stop() {
+		executor.shutdownNow();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		List<Object[]> rows = jdbcTemplate.query(
+				"SELECT id, due_date FROM task WHERE due_date IS NOT NULL AND status <> ?",
+				(rs, i) -> new Object[] { rs.getLong(1), rs.getObject(2, LocalDate.class) },
+				Status.COMPLETED.ordinal());
+		for (Object[] r : rows) {
+			schedule((Long) r[0], (LocalDate) r[1]);
+		}
+		Map<String, Object> m = getMetrics();
+		System.out.println("Due-date timers loaded: " + m.get("trackedTasks") + " tasks, " + m.get("overdue")
+				+ " overdue");
+	}
+
+	@Override
+	public void onTaskEvent(TaskEvent event) {
+		long taskId = event.getTaskId();
+		switch (event.getType()) {
+		case CREATED:
+		case REASSIGN:
+			later(taskId, true);
+			break;
+		case COMPLETED:
+			later(taskId, false);
+			break;
+		case STATUS_CHANGE:
+			// Moving a task out of COMPLETED reopens it
+			if (event.getFromStatus() == Status.COMPLETED) {
+				later(taskId, true);
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	// After commit, once per task and transaction: reload (true) or cancel; the last event decides
+	private void later(long taskId, boolean reload) {
+		TransactionHooks.collect(PENDING_KEY, LinkedHashMap<Long, Boolean>::new,
+				pending -> pending.put(taskId, reload),
+				pending -> pending.forEach((id, r) -> {
+					if (r) {
+						reload(id);
+					} else {
+						cancel(id);
+					}
+				}));
+	}
+
+	private void reload(long taskId) {
+		TaskInfo task = find(taskId);
+		if (task == null || task.dueDate() == null || task.status() == Status.COMPLETED) {
+			cancel(taskId);
+		} else {
+			schedule(taskId, task.dueDate());
+		}
+	}
+
+	private synchronized void schedule(long taskId, LocalDate dueDate) {
+		cancel(taskId);
+		Timers t = new Timers(dueDate);
+		long now = System.currentTimeMillis();
+		long breachAt = dueDate.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		long reminderAt = breachAt - TimeUnit.HOURS.toMillis(reminderLeadHours);
+
+		if (breachAt <= now) {
+			t.overdue = true;
+		} else {
+			if (reminderAt > now) {
+				t.reminder = executor.schedule(() -> fire(taskId, dueDate, false), reminderAt - now,
+						TimeUnit.MILLISECONDS);
+			}
+			t.breach = executor.schedule(() -> fire(taskId, dueDate, true), breachAt - now, TimeUnit.MILLISECONDS);
+		}
+		timers.put(taskId, t);
+	}
+
+	private synchronized void cancel(long taskId) {
+		Timers t = timers.remove(taskId);
+		if (t != null) {
+			if (t.reminder != null) {
+				t.reminder.cancel(false);
+			}
+			if (t.breach != null) {
+				t.breach.cancel(false);
+			}
+		}
+	}
+
+	private void fire(long taskId, LocalDate dueDate, boolean breach) {
+		try {
+			TaskInfo task = find(taskId);
+			if (task == null || task.status() == Status.COMPLETED || !dueDate.equals(task.dueDate())) {
+				skipped.increment();
+				return;
+			}
+			if (breach) {
+				Timers t = timers.get(taskId);
+				if (t != null) {
+					t.overdue = true;
+				}
+				String subject = "⚠️ Task Overdue: " + task.title();
+				String body = body(task, "The due date of this task has passed and it is not completed yet.");
+				mailService.sendMail(task.email(), subject, body);
+				if (task.adminEmail() != null) {
+					mailService.sendMail(task.adminEmail(), subject, body);
+				}
+				breachesSent.increment();
+			} else {
+				mailService.sendMail(task.email(), "⏰ Task Due Soon: " + task.title(),
+						body(task, "This task is due by the end of " + task.dueDate() + "."));
+				remindersSent.increment();
+			}
+		} catch (Exception e) {
+			System.err.println("Due-date notification failed for task " + taskId + ": " + e.getMessage());
+		}
+	}
+
+	private TaskInfo find(long taskId) {
+		List<TaskInfo> rows = jdbcTemplate.query(TASK_SQL, (rs, i) -> {
+			int ordinal = rs.getInt("status");
+			Status status = rs.wasNull() ? null : Status.values()[ordinal];
+			return new TaskInfo(rs.getString("title"), rs.getObject("due_date", LocalDate.class), status,
+					rs.getString("username"), rs.getString("email"), rs.getString("admin_email"));
+		}, taskId);
+		return rows.isEmpty() ? null : rows.get(0);
+	}
+
+	private String body(TaskInfo task, String message) {
+		return "<html><body style='font-family: Arial; line-height:1.6;'>"
+				+ "<h2 style='color:#C0392B;'>" + task.title() + "</h2>"
+				+ "<p>Hi <strong>" + task.username() + "</strong>,</p>"
+				+ "<p>" + message + "</p>"
+				+ "<p>Due Date: " + task.dueDate() + "<br/>Status: " + task.status() + "</p>"
+				+ "<p>Thanks,<br/>Task Management Team</p>"
+				+ "</body></html>";
+	}
+
+	/** Open tasks past their due date as taskId -> due date, oldest first. */
+	public Map<Long, LocalDate> getOverdue() {
+		List<Map.Entry<Long, Timers>> overdue = new ArrayList<>();
+		for (Map.Entry<Long, Timers> e : timers.entrySet()) {
+			if (e.getValue().overdue) {
+				overdue.add(e);
+			}
+		}
+		overdue.sort(Comparator.comparing((Map.Entry<Long, Timers> e) -> e.getValue().dueDate)
+				.thenComparing(Map.Entry::getKey));
+		Map<Long, LocalDate> result = new LinkedHashMap<>();
+		for (Map.Entry<Long, Timers> e : overdue) {
+			result.put(e.getKey(), e.getValue().dueDate);
+		}
+		return result;
+	}
+
+	public Map<String, Object> getMetrics() {
+		int reminders = 0;
+		int breaches = 0;
+		int overdue = 0;
+		long nextFireMs = -1;
+		for (Timers t : timers.values()) {
+			if (t.overdue) {
+				overdue++;
+			}
+			for (ScheduledFuture<?> f : new ScheduledFuture<?>[] { t.reminder, t.breach }) {
+				if (f != null && !f.isDone()) {
+					if (f == t.reminder) {
+						reminders++;
+					} else {
+						breaches++;
+					}
+					long delay = f.getDelay(TimeUnit.MILLISECONDS);
+					if (nextFireMs < 0 || delay < nextFireMs) {
+						nextFireMs = Math.max(0, delay);
+					}
+				}
+			}
+		}
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("trackedTasks", timers.size());
+		m.put("pendingReminders", reminders);
+		m.put("pendingBreaches", breaches);
+		m.put("queuedTimers", executor.getQueue().size());
+		m.put("overdue", overdue);
+		m.put("nextFireInMs", nextFireMs);
+		m.put("remindersSent", remindersSent.sum());
+		m.put("breachesSent", breachesSent.sum());
+		m.put("skipped", skipped.sum());
+		m.put("reminderLeadHours", reminderLeadHours);
+		return m;
+	}
+}
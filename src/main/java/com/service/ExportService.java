@@ -0,0 +1,198 @@
+package com.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Flat exports of work logs and login audit rows for external tooling.
+ * Rows come off a forward-only cursor and are written one at a time, so
+ * memory does not grow with the size of the export.
+ */
+@Service
+public class ExportService {
+
+	public enum Format {
+		NDJSON, CSV
+	}
+
+	private static final String WORK_LOGS_SQL = """
+			SELECT w.id, w.task_id, t.title AS task_title, w.user_id, u.username, w.start_time, w.end_time,
+			       w.duration_minutes, w.comment
+			FROM work_logs w
+			LEFT JOIN task t ON t.id = w.task_id
+			LEFT JOIN users u ON u.id = w.user_id
+			WHERE 1 = 1
+			""";
+
+	private static final String AUDIT_SQL = """
+			SELECT a.id, a.user_id, a.username, a.login_time, a.logout_time, a.session_duration_minutes,
+			       a.ip_address, a.user_agent, a.status
+			FROM user_login_audit a
+			WHERE 1 = 1
+			""";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final JsonMapper jsonMapper;
+
+	@Value("${export.fetch-size:1000}")
+	private int fetchSize;
+
+	public ExportService(JdbcTemplate jdbcTemplate, JsonMapper jsonMapper) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.jsonMapper = jsonMapper;
+	}
+
+	/** Work logs starting in [from, to] (either may be null), optionally limited to userIds, by id. */
+	public void exportWorkLogs(LocalDate from, LocalDate to, List<Long> userIds, Format format, OutputStream out) {
+		export(WORK_LOGS_SQL, "w.user_id", "w.start_time", "w.id", from, to, userIds, format, out);
+	}
+
+	/** Logins in [from, to] (either may be null), optionally limited to userIds, by id. */
+	public void exportAudit(LocalDate from, LocalDate to, List<Long> userIds, Format format, OutputStream out) {
+		export(AUDIT_SQL, "a.user_id", "a.login_time", "a.id", from, to, userIds, format, out);
+	}
+
+	private void export(String select, String userColumn, String timeColumn, String idColumn, LocalDate from,
+			LocalDate to, List<Long> userIds, Format format, OutputStream out) {
+		StringBuilder sql = new StringBuilder(select);
+		List<Object> args = new ArrayList<>();
+		if (userIds != null && !userIds.isEmpty()) {
+			sql.append(" AND ").append(userColumn).append(" IN (")
+					.append(String.join(",", Collections.nCopies(userIds.size(), "?"))).append(")");
+			args.addAll(userIds);
+		}
+		if (from != null) {
+			sql.append(" AND ").append(timeColumn).append(" >= ?");
+			args.add(Timestamp.valueOf(from.atStartOfDay()));
+		}
+		if (to != null) {
+			sql.append(" AND ").append(timeColumn).append(" < ?");
+			args.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+		}
+		sql.append(" ORDER BY ").append(idColumn);
+
+		RowWriter writer = new RowWriter(format, out);
+		jdbcTemplate.query(con -> {
+			PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(fetchSize);
+			for (int i = 0; i < args.size(); i++) {
+				ps.setObject(i + 1, args.get(i));
+			}
+			return ps;
+		}, writer);
+	}
+
+	// Writes each row as it arrives; the CSV header comes from the result set metadata, so an
+	// empty export still has one
+	private final class RowWriter implements ResultSetExtractor<Void> {
+		private final Format format;
+		private final OutputStream out;
+		private String[] columns;
+		private int[] types;
+
+		RowWriter(Format format, OutputStream out) {
+			this.format = format;
+			this.out = out;
+		}
+
+		@Override
+		public Void extractData(ResultSet rs) throws SQLException {
+			ResultSetMetaData meta = rs.getMetaData();
+			columns = new String[meta.getColumnCount()];
+			types = new int[columns.length];
+			for (int i = 0; i < columns.length; i++) {
+				columns[i] = meta.getColumnLabel(i + 1).toLowerCase();
+				types[i] = meta.getColumnType(i + 1);
+			}
+			if (format == Format.CSV) {
+				write(String.join(",", columns) + "\n");
+			}
+			while (rs.next()) {
+				writeRow(rs);
+			}
+			return null;
+		}
+
+		private void writeRow(ResultSet rs) throws SQLException {
+			try {
+				if (format == Format.CSV) {
+					StringBuilder line = new StringBuilder();
+					for (int i = 0; i < columns.length; i++) {
+						if (i > 0) {
+							line.append(',');
+						}
+						line.append(csv(value(rs, i)));
+					}
+					write(line.append('\n').toString());
+				} else {
+					Map<String, Object> row = new LinkedHashMap<>();
+					for (int i = 0; i < columns.length; i++) {
+						row.put(columns[i], value(rs, i));
+					}
+					out.write(jsonMapper.writeValueAsBytes(row));
+					out.write('\n');
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		// Dates and timestamps as ISO strings, everything else as the driver returns it
+		private Object value(ResultSet rs, int i) throws SQLException {
+			switch (types[i]) {
+			case Types.TIMESTAMP:
+			case Types.TIMESTAMP_WITH_TIMEZONE: {
+				Timestamp ts = rs.getTimestamp(i + 1);
+				return ts == null ? null : ts.toLocalDateTime().toString();
+			}
+			case Types.DATE: {
+				java.sql.Date d = rs.getDate(i + 1);
+				return d == null ? null : d.toLocalDate().toString();
+			}
+			default:
+				return rs.getObject(i + 1);
+			}
+		}
+
+		private void write(String s) {
+			try {
+				out.write(s.getBytes(StandardCharsets.UTF_8));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	private static String csv(Object value) {
+		if (value == null) {
+			return "";
+		}
+		String s = value.toString();
+		if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+			return s;
+		}
+		return '"' + s.replace("\"", "\"\"") + '"';
+	}
+}
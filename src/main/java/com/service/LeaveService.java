@@ -24,6 +24,9 @@ public class LeaveService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AdminSummaryService summaryService;
+
     public LeaveRequest createRequest(Long userId, LeaveRequest leaveRequest) {
         User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -36,6 +39,7 @@ public class LeaveService {
         leaveRequest.setUser(user);
         leaveRequest.setStatus("PENDING");
         LeaveRequest savedLeave = leaveRepository.save(leaveRequest);
+        summaryService.leaveChanged(savedLeave);
 
         // Notify Admins
         List<User> admins = userRepository.findByRole(Role.ROLE_ADMIN);
@@ -89,6 +93,7 @@ public class LeaveService {
                 .orElseThrow(() -> new RuntimeException("Leave not found"));
         leave.setStatus(status);
         LeaveRequest savedLeave = leaveRepository.save(leave);
+        summaryService.leaveChanged(savedLeave);
 
         // Notify User
         User user = savedLeave.getUser();
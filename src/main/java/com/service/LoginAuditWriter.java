@@ -0,0 +1,384 @@
+package com.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind pipeline for user_login_audit. Login/logout only enqueue an
+ * event; a background thread drains the queue in batches and applies them
+ * with JDBC batch updates/inserts in one transaction per batch.
+ *
+ * A failed batch is retried with backoff, then written one event per
+ * transaction so a bad row only costs itself. A LOGIN that still fails is
+ * counted and dropped; LOGOUT and EXPIRE events are carried into the next
+ * batch instead, since losing one leaves a session ACTIVE forever.
+ */
+@Service
+public class LoginAuditWriter {
+
+	public enum FullPolicy {
+		BLOCK, DROP
+	}
+
+	private enum EventType {
+		LOGIN, LOGOUT, EXPIRE
+	}
+
+	private static final String CLOSE_SQL = """
+			UPDATE user_login_audit
+			SET logout_time = ?, status = ?,
+			    session_duration_minutes = COALESCE(DATEDIFF('SECOND', login_time, ?) / 60, 0)
+			WHERE user_id = ? AND status = 'ACTIVE'
+			""";
+
+	// Expiry only closes sessions that started before the swept login, never a newer one
+	private static final String CLOSE_UP_TO_SQL = CLOSE_SQL + " AND login_time <= ?";
+
+	// Ids come from the same pooled sequence Hibernate uses; a raw NEXT VALUE is never inside a range Hibernate holds
+	private static final String INSERT_SQL = """
+			INSERT INTO user_login_audit
+			(id, user_id, username, login_time, logout_time, session_duration_minutes, ip_address, user_agent, status)
+			VALUES (NEXT VALUE FOR user_login_audit_seq, ?, ?, ?, ?, ?, ?, ?, ?)
+			""";
+
+	private static final class AuditEvent {
+		EventType type;
+		Long userId;
+		String username;
+		String ipAddress;
+		String userAgent;
+		LocalDateTime time;
+		LocalDateTime loginUpTo;
+		long enqueuedAtNanos;
+	}
+
+	// A row created by a LOGIN in the current batch, possibly closed by a later event of the same batch
+	private static final class PendingRow {
+		AuditEvent login;
+		LocalDateTime logoutTime;
+		String status = "ACTIVE";
+		Long durationMinutes;
+	}
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+
+	@Value("${audit.queue.capacity:10000}")
+	private int queueCapacity;
+
+	@Value("${audit.queue.full-policy:BLOCK}")
+	private FullPolicy fullPolicy;
+
+	@Value("${audit.batch.size:200}")
+	private int batchSize;
+
+	@Value("${audit.flush-interval-ms:200}")
+	private long flushIntervalMs;
+
+	@Value("${audit.retry.attempts:3}")
+	private int retryAttempts;
+
+	@Value("${audit.retry.backoff-ms:100}")
+	private long retryBackoffMs;
+
+	private BlockingQueue<AuditEvent> queue;
+	private Thread writerThread;
+	private volatile boolean running;
+
+	// Closes that failed even on their own, oldest first; only the writer thread touches it while it runs
+	private final List<AuditEvent> carried = new ArrayList<>();
+
+	private final LongAdder enqueued = new LongAdder();
+	private final LongAdder written = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder batches = new LongAdder();
+	private final LongAdder retries = new LongAdder();
+	private final AtomicLong lastBatchLagMs = new AtomicLong();
+	private final AtomicLong maxBatchLagMs = new AtomicLong();
+
+	public LoginAuditWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+	}
+
+	@PostConstruct
+	void start() {
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		running = true;
+		writerThread = new Thread(this::drainLoop, "login-audit-writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	// Flush-on-shutdown: stop accepting, let the writer empty the queue, then sweep leftovers
+	@PreDestroy
+	void shutdown() throws InterruptedException {
+		running = false;
+		// No interrupt: an interrupted H2 file channel gets closed. The poll timeout wakes the writer.
+		writerThread.join(TimeUnit.SECONDS.toMillis(30));
+		List<AuditEvent> rest = new ArrayList<>(carried);
+		carried.clear();
+		queue.drainTo(rest);
+		if (!rest.isEmpty()) {
+			lost(writeBatch(rest));
+		}
+	}
+
+	public boolean recordLogin(Long userId, String username, String ipAddress, String userAgent,
+			LocalDateTime loginTime) {
+		AuditEvent e = new AuditEvent();
+		e.type = EventType.LOGIN;
+		e.userId = userId;
+		e.username = username;
+		e.ipAddress = ipAddress;
+		e.userAgent = userAgent;
+		e.time = loginTime;
+		return enqueue(e);
+	}
+
+	public boolean recordLogout(Long userId, LocalDateTime logoutTime) {
+		AuditEvent e = new AuditEvent();
+		e.type = EventType.LOGOUT;
+		e.userId = userId;
+		e.time = logoutTime;
+		return enqueue(e, fullPolicy == FullPolicy.DROP);
+	}
+
+	/**
+	 * Marks sessions of the user that logged in at or before loginUpTo as
+	 * EXPIRED. Never dropped: a lost expiry would leave the row ACTIVE forever.
+	 */
+	public void recordExpiry(Long userId, LocalDateTime closeTime, LocalDateTime loginUpTo) {
+		AuditEvent e = new AuditEvent();
+		e.type = EventType.EXPIRE;
+		e.userId = userId;
+		e.time = closeTime;
+		e.loginUpTo = loginUpTo;
+		enqueue(e, false);
+	}
+
+	private boolean enqueue(AuditEvent e) {
+		return enqueue(e, fullPolicy == FullPolicy.DROP);
+	}
+
+	private boolean enqueue(AuditEvent e, boolean mayDrop) {
+		e.enqueuedAtNanos = System.nanoTime();
+		if (!running) {
+			// Shutting down: write inline rather than lose the event
+			lost(writeBatch(List.of(e)));
+			return true;
+		}
+		if (mayDrop) {
+			if (!queue.offer(e)) {
+				dropped.increment();
+				return false;
+			}
+		} else {
+			try {
+				queue.put(e);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				dropped.increment();
+				return false;
+			}
+		}
+		enqueued.increment();
+		return true;
+	}
+
+	private void drainLoop() {
+		List<AuditEvent> batch = new ArrayList<>(batchSize);
+		while (running || !queue.isEmpty()) {
+			try {
+				AuditEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+				if (first == null && carried.isEmpty()) {
+					continue;
+				}
+				// Carried events are older than anything queued, so they go first
+				batch.addAll(carried);
+				carried.clear();
+				if (first != null) {
+					batch.add(first);
+					queue.drainTo(batch, batchSize - 1);
+				}
+				carried.addAll(writeBatch(batch));
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	/**
+	 * Writes the events in order and returns the LOGOUT/EXPIRE events that
+	 * could not be written, for the caller to try again.
+	 */
+	private List<AuditEvent> writeBatch(List<AuditEvent> batch) {
+		if (writeWithRetry(batch)) {
+			return List.of();
+		}
+		// One transaction per event: whatever fails the batch only fails its own event
+		List<AuditEvent> unwritten = new ArrayList<>();
+		for (AuditEvent e : batch) {
+			try {
+				apply(List.of(e));
+			} catch (Exception ex) {
+				if (e.type == EventType.LOGIN) {
+					failed.increment();
+					System.err.println("Dropped login audit of user " + e.userId + ": " + ex.getMessage());
+				} else {
+					unwritten.add(e);
+				}
+			}
+		}
+		return unwritten;
+	}
+
+	// A failed batch rolled back whole, so running it again cannot apply anything twice
+	private boolean writeWithRetry(List<AuditEvent> batch) {
+		long backoffMs = retryBackoffMs;
+		for (int attempt = 0;; attempt++) {
+			try {
+				apply(batch);
+				return true;
+			} catch (Exception ex) {
+				if (attempt >= retryAttempts) {
+					System.err.println("Failed to write login audit batch of " + batch.size() + " after "
+							+ (attempt + 1) + " attempts: " + ex.getMessage());
+					return false;
+				}
+			}
+			retries.increment();
+			try {
+				Thread.sleep(backoffMs);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			backoffMs *= 2;
+		}
+	}
+
+	private void lost(List<AuditEvent> unwritten) {
+		if (!unwritten.isEmpty()) {
+			failed.add(unwritten.size());
+			System.err.println("Login audit lost " + unwritten.size() + " session closes at shutdown");
+		}
+	}
+
+	private void apply(List<AuditEvent> batch) {
+		List<Object[]> closes = new ArrayList<>();
+		List<Object[]> expiries = new ArrayList<>();
+		List<PendingRow> inserts = new ArrayList<>();
+		Map<Long, PendingRow> openInBatch = new HashMap<>();
+
+		for (AuditEvent e : batch) {
+			Timestamp at = Timestamp.valueOf(e.time);
+			if (e.type == EventType.EXPIRE) {
+				PendingRow open = openInBatch.get(e.userId);
+				if (open != null && !open.login.time.isAfter(e.loginUpTo)) {
+					close(open, e.time, "EXPIRED");
+					openInBatch.remove(e.userId);
+				}
+				expiries.add(new Object[] { at, "EXPIRED", at, e.userId, Timestamp.valueOf(e.loginUpTo) });
+				continue;
+			}
+
+			// Both LOGIN and LOGOUT close whatever is currently open for the user
+			PendingRow open = openInBatch.remove(e.userId);
+			if (open != null) {
+				close(open, e.time, "LOGOUT");
+			}
+			closes.add(new Object[] { at, "LOGOUT", at, e.userId });
+
+			if (e.type == EventType.LOGIN) {
+				PendingRow row = new PendingRow();
+				row.login = e;
+				inserts.add(row);
+				openInBatch.put(e.userId, row);
+			}
+		}
+
+		transactionTemplate.executeWithoutResult(status -> {
+			// Closes target rows written by earlier batches, so they run before this batch's inserts
+			if (!expiries.isEmpty()) {
+				jdbcTemplate.batchUpdate(CLOSE_UP_TO_SQL, expiries);
+			}
+			if (!closes.isEmpty()) {
+				jdbcTemplate.batchUpdate(CLOSE_SQL, closes);
+			}
+			if (!inserts.isEmpty()) {
+				jdbcTemplate.batchUpdate(INSERT_SQL, toInsertArgs(inserts));
+			}
+		});
+		written.add(batch.size());
+		batches.increment();
+		long lagMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batch.get(0).enqueuedAtNanos);
+		lastBatchLagMs.set(lagMs);
+		maxBatchLagMs.accumulateAndGet(lagMs, Math::max);
+	}
+
+	private void close(PendingRow row, LocalDateTime time, String status) {
+		row.logoutTime = time;
+		row.status = status;
+		row.durationMinutes = Duration.between(row.login.time, time).toMinutes();
+	}
+
+	private List<Object[]> toInsertArgs(List<PendingRow> rows) {
+		List<Object[]> args = new ArrayList<>(rows.size());
+		for (PendingRow r : rows) {
+			args.add(new Object[] {
+					r.login.userId,
+					r.login.username,
+					Timestamp.valueOf(r.login.time),
+					r.logoutTime != null ? Timestamp.valueOf(r.logoutTime) : null,
+					r.durationMinutes,
+					r.login.ipAddress,
+					r.login.userAgent,
+					r.status });
+		}
+		return args;
+	}
+
+	public Map<String, Object> getMetrics() {
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("queueDepth", queue.size());
+		m.put("queueCapacity", queueCapacity);
+		m.put("fullPolicy", fullPolicy.name());
+		AuditEvent head = queue.peek();
+		m.put("oldestQueuedAgeMs",
+				head == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - head.enqueuedAtNanos));
+		m.put("lastBatchLagMs", lastBatchLagMs.get());
+		m.put("maxBatchLagMs", maxBatchLagMs.get());
+		m.put("enqueued", enqueued.sum());
+		m.put("written", written.sum());
+		m.put("dropped", dropped.sum());
+		m.put("failed", failed.sum());
+		m.put("retries", retries.sum());
+		m.put("carried", carried.size());
+		m.put("batches", batches.sum());
+		return m;
+	}
+}
@@ -137,7 +137,7 @@ public class ReportService {
                 row.createCell(1)
                         .setCellValue(audit.getLoginTime() != null ? audit.getLoginTime().format(formatter) : "");
                 row.createCell(2).setCellValue(audit.getLogoutTime() != null ? audit.getLogoutTime().format(formatter)
-                        : "Active/Session Expired");
+                        : "Active");
                 row.createCell(3).setCellValue(
                         audit.getSessionDurationMinutes() != null ? audit.getSessionDurationMinutes() : 0);
                 row.createCell(4).setCellValue(audit.getIpAddress() != null ? audit.getIpAddress() : "");
@@ -0,0 +1,106 @@
+package com.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.entity.UserLoginAudit;
+import com.repo.UserLoginAuditRepository;
+
+/**
+ * In-memory view of the ACTIVE rows in user_login_audit, keyed by user id.
+ * Kept current by login/logout and by JwtFilter touching the session on each
+ * request; a scheduled sweeper expires sessions whose token has run out or
+ * that have been idle too long.
+ */
+@Service
+public class SessionRegistry {
+
+	private static final class Session {
+		final LocalDateTime loginTime;
+		volatile LocalDateTime lastSeen;
+
+		Session(LocalDateTime loginTime) {
+			this.loginTime = loginTime;
+			this.lastSeen = loginTime;
+		}
+	}
+
+	private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+
+	private final UserLoginAuditRepository auditRepo;
+	private final LoginAuditWriter auditWriter;
+
+	@Value("${jwt.expiration}")
+	private long tokenLifetimeMs;
+
+	@Value("${session.idle-timeout-ms:${jwt.expiration}}")
+	private long idleTimeoutMs;
+
+	public SessionRegistry(UserLoginAuditRepository auditRepo, LoginAuditWriter auditWriter) {
+		this.auditRepo = auditRepo;
+		this.auditWriter = auditWriter;
+	}
+
+	// One read at startup; after that the ACTIVE rows are never queried again
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadActiveSessions() {
+		for (UserLoginAudit audit : auditRepo.findByStatus("ACTIVE")) {
+			LocalDateTime login = audit.getLoginTime() != null ? audit.getLoginTime() : LocalDateTime.now();
+			sessions.merge(audit.getUserId(), new Session(login),
+					(a, b) -> a.loginTime.isAfter(b.loginTime) ? a : b);
+		}
+	}
+
+	public void login(Long userId, LocalDateTime loginTime) {
+		sessions.put(userId, new Session(loginTime));
+	}
+
+	public void logout(Long userId) {
+		sessions.remove(userId);
+	}
+
+	public void touch(Long userId) {
+		Session s = sessions.get(userId);
+		if (s != null) {
+			s.lastSeen = LocalDateTime.now();
+		}
+	}
+
+	public int activeCount() {
+		return sessions.size();
+	}
+
+	public List<Long> activeUserIds() {
+		return new ArrayList<>(sessions.keySet());
+	}
+
+	@Scheduled(fixedDelayString = "${session.sweep-interval-ms:60000}")
+	public void sweepExpired() {
+		LocalDateTime now = LocalDateTime.now();
+		Duration tokenLifetime = Duration.ofMillis(tokenLifetimeMs);
+		LocalDateTime idleCutoff = now.minus(Duration.ofMillis(idleTimeoutMs));
+
+		sessions.forEach((userId, s) -> {
+			LocalDateTime tokenExpiry = s.loginTime.plus(tokenLifetime);
+			boolean idle = s.lastSeen.isBefore(idleCutoff);
+			if (tokenExpiry.isAfter(now) && !idle) {
+				return;
+			}
+			// Conditional remove: a fresh login that replaced this entry is left alone
+			if (sessions.remove(userId, s)) {
+				LocalDateTime closeTime = idle && s.lastSeen.isBefore(tokenExpiry) ? s.lastSeen : tokenExpiry;
+				auditWriter.recordExpiry(userId, closeTime, s.loginTime);
+			}
+		});
+	}
+}
@@ -0,0 +1,252 @@
+package com.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.entity.Status;
+import com.entity.TaskEvent;
+import com.entity.UserTaskCounter;
+import com.repo.TaskRepository;
+import com.repo.UserTaskCounterRepository;
+import com.util.TransactionHooks;
+
+/**
+ * Per-user task counts by status. The user_task_counters table is updated in
+ * the same transaction as the task write; the in-memory copy is applied after
+ * commit, so a rolled back write never shows up in the stats. Fed by the
+ * task event stream.
+ *
+ * rebuild() runs alone: transactions that change counters hold a shared lock
+ * from their first change until they complete, and rebuild holds it
+ * exclusively. The GROUP BY then sees every change that reached the table,
+ * and no change can land between it and the new counters.
+ */
+@Service
+public class TaskCounterService implements TaskEventListener {
+
+	private static final int STATUSES = Status.values().length;
+
+	private static final Object DELTAS_KEY = new Object();
+
+	// Arrays are never mutated once published: every change swaps in a fresh copy
+	private final Map<Long, long[]> counts = new ConcurrentHashMap<>();
+
+	// Bumped after every applied change so readers can tell whether their view is stale
+	private final AtomicLong version = new AtomicLong();
+
+	// Shared by transactions that change counters, exclusive for rebuild; both until the transaction completes
+	private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+	// Atomic add-or-create, so two first writes for one (user, status) cannot both insert
+	private static final String UPSERT_SQL = """
+			MERGE INTO user_task_counters c
+			USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), CAST(? AS BIGINT))) s(user_id, status, delta)
+			ON c.user_id = s.user_id AND c.status = s.status
+			WHEN MATCHED THEN UPDATE SET task_count = c.task_count + s.delta
+			WHEN NOT MATCHED THEN INSERT (id, user_id, status, task_count)
+			    VALUES (NEXT VALUE FOR user_task_counters_seq, s.user_id, s.status, s.delta)
+			""";
+
+	private final UserTaskCounterRepository counterRepo;
+	private final TaskRepository taskRepo;
+	private final JdbcTemplate jdbcTemplate;
+
+	public TaskCounterService(UserTaskCounterRepository counterRepo, TaskRepository taskRepo,
+			JdbcTemplate jdbcTemplate) {
+		this.counterRepo = counterRepo;
+		this.taskRepo = taskRepo;
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional
+	public void load() {
+		// First start with existing tasks: the table has never been filled
+		if (counterRepo.count() == 0 && taskRepo.count() > 0) {
+			rebuild();
+			return;
+		}
+		counts.clear();
+		for (UserTaskCounter c : counterRepo.findAll()) {
+			counts.computeIfAbsent(c.getUserId(), k -> new long[STATUSES])[c.getStatus().ordinal()] = c.getTaskCount();
+		}
+		version.incrementAndGet();
+	}
+
+	@Override
+	public void onTaskEvent(TaskEvent event) {
+		switch (event.getType()) {
+		case CREATED:
+			taskCreated(event.getToUserId(), event.getToStatus());
+			break;
+		case STATUS_CHANGE:
+		case REASSIGN:
+		case COMPLETED:
+			taskMoved(event.getFromUserId(), event.getFromStatus(), event.getToUserId(), event.getToStatus());
+			break;
+		default:
+			break;
+		}
+	}
+
+	@Transactional
+	public void taskCreated(Long userId, Status status) {
+		adjust(userId, status, 1);
+	}
+
+	@Transactional
+	public void taskMoved(Long fromUserId, Status fromStatus, Long toUserId, Status toStatus) {
+		if (Objects.equals(fromUserId, toUserId) && fromStatus == toStatus) {
+			return;
+		}
+		adjust(fromUserId, fromStatus, -1);
+		adjust(toUserId, toStatus, 1);
+	}
+
+	/** Copy of the user's counts indexed by Status.ordinal(). */
+	public long[] snapshot(Long userId) {
+		long[] c = counts.get(userId);
+		return c == null ? new long[STATUSES] : c.clone();
+	}
+
+	/** Visits every user's counts. The arrays are shared and must not be modified. */
+	public void forEachUser(BiConsumer<Long, long[]> action) {
+		counts.forEach(action);
+	}
+
+	public long version() {
+		return version.get();
+	}
+
+	/** Recomputes every counter from a GROUP BY over the task table. */
+	@Transactional
+	public int rebuild() {
+		lockUntilCompletion(rebuildLock.writeLock());
+		Map<Long, long[]> fresh = groupByFromTasks();
+		counterRepo.deleteAllInBatch();
+		List<UserTaskCounter> rows = new ArrayList<>();
+		fresh.forEach((userId, c) -> {
+			for (Status s : Status.values()) {
+				if (c[s.ordinal()] != 0) {
+					rows.add(new UserTaskCounter(null, userId, s, c[s.ordinal()]));
+				}
+			}
+		});
+		counterRepo.saveAll(rows);
+		TransactionHooks.afterCommit(() -> {
+			counts.clear();
+			counts.putAll(fresh);
+			version.incrementAndGet();
+		});
+		return rows.size();
+	}
+
+	/**
+	 * Compares the in-memory counters with a fresh GROUP BY and returns one
+	 * line per (user, status) that disagrees. Empty means consistent.
+	 */
+	@Transactional(readOnly = true)
+	public List<String> check() {
+		Map<Long, long[]> expected = groupByFromTasks();
+		Set<Long> users = new HashSet<>(expected.keySet());
+		users.addAll(counts.keySet());
+
+		List<String> mismatches = new ArrayList<>();
+		for (Long userId : users) {
+			long[] want = expected.getOrDefault(userId, new long[STATUSES]);
+			long[] have = snapshot(userId);
+			for (Status s : Status.values()) {
+				if (want[s.ordinal()] != have[s.ordinal()]) {
+					mismatches.add("user " + userId + " " + s + ": counter=" + have[s.ordinal()] + ", tasks="
+							+ want[s.ordinal()]);
+				}
+			}
+		}
+		return mismatches;
+	}
+
+	public Map<String, Object> checkReport() {
+		List<String> mismatches = check();
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("consistent", mismatches.isEmpty());
+		report.put("mismatches", mismatches);
+		return report;
+	}
+
+	private Map<Long, long[]> groupByFromTasks() {
+		Map<Long, long[]> result = new HashMap<>();
+		for (Object[] row : taskRepo.countGroupedByUserAndStatus()) {
+			Long userId = (Long) row[0];
+			Status status = (Status) row[1];
+			if (status == null) {
+				continue;
+			}
+			result.computeIfAbsent(userId, k -> new long[STATUSES])[status.ordinal()] = ((Number) row[2]).longValue();
+		}
+		return result;
+	}
+
+	private void adjust(Long userId, Status status, long delta) {
+		if (userId == null || status == null) {
+			return;
+		}
+		lockUntilCompletion(rebuildLock.readLock());
+		Object[] args = { userId, status.name(), delta };
+		try {
+			jdbcTemplate.update(UPSERT_SQL, args);
+		} catch (DuplicateKeyException e) {
+			// Lost the race to insert the row; it exists now, so this adds to it
+			jdbcTemplate.update(UPSERT_SQL, args);
+		}
+		// userId -> delta per status, applied once after commit
+		TransactionHooks.collect(DELTAS_KEY, HashMap<Long, long[]>::new,
+				deltas -> deltas.computeIfAbsent(userId, k -> new long[STATUSES])[status.ordinal()] += delta,
+				deltas -> {
+					deltas.forEach((id, d) -> counts.compute(id, (k, c) -> {
+						long[] next = c == null ? new long[STATUSES] : c.clone();
+						for (int i = 0; i < STATUSES; i++) {
+							next[i] += d[i];
+						}
+						return next;
+					}));
+					version.incrementAndGet();
+				});
+	}
+
+	// Once per transaction; released after the after-commit updates of the counters have run
+	private static void lockUntilCompletion(Lock lock) {
+		if (TransactionSynchronizationManager.hasResource(lock)) {
+			return;
+		}
+		lock.lock();
+		TransactionSynchronizationManager.bindResource(lock, Boolean.TRUE);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(lock);
+				lock.unlock();
+			}
+		});
+	}
+}
@@ -0,0 +1,12 @@
+package com.service;
+
+import com.entity.TaskEvent;
+
+/**
+ * Receives every appended task event inside the transaction that wrote it.
+ * Anything kept in memory should be applied after commit.
+ */
+public interface TaskEventListener {
+
+	void onTaskEvent(TaskEvent event);
+}
@@ -0,0 +1,223 @@
+package com.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.dto.CursorPage;
+import com.dto.TaskHistoryDTO;
+import com.entity.Status;
+import com.entity.TaskEvent;
+import com.entity.TaskEventType;
+import com.repo.TaskEventRepository;
+import com.util.CursorCodec;
+
+/**
+ * Append-only task history. Every change to a task appends one TaskEvent with
+ * the next per-task seq and is handed to the registered TaskEventListeners in
+ * the same transaction. History reads are a range scan over (task_id, seq).
+ *
+ * Tasks that existed before the event store get their history written once,
+ * the first time they are read or changed (see ensureHistory).
+ */
+@Service
+@Transactional
+public class TaskEventService {
+
+	private static final Object TX_KEY = new Object();
+
+	// Tasks the current transaction created
+	private static final class TxTasks {
+		final Set<Long> created = new HashSet<>();
+	}
+
+	// taskId -> last seq handed out; loaded from the table on first use. Never lowered: a rolled back
+	// transaction leaves a gap, since other open transactions may hold seqs past its own.
+	private final Map<Long, AtomicLong> lastSeq = new ConcurrentHashMap<>();
+
+	// Tasks known to have their history in the table, backfilled or created with it
+	private final Set<Long> complete = ConcurrentHashMap.newKeySet();
+
+	private final TaskEventRepository eventRepo;
+	private final TaskHistoryBackfill backfill;
+	private final List<TaskEventListener> listeners;
+
+	@Value("${tasks.page.default-size:100}")
+	private int defaultPageSize;
+
+	@Value("${tasks.page.max-size:1000}")
+	private int maxPageSize;
+
+	public TaskEventService(TaskEventRepository eventRepo, TaskHistoryBackfill backfill,
+			List<TaskEventListener> listeners) {
+		this.eventRepo = eventRepo;
+		this.backfill = backfill;
+		this.listeners = listeners;
+	}
+
+	public TaskEvent created(Long taskId, Long actorId, String actorName, Long ownerId, String description) {
+		TaskEvent e = event(taskId, TaskEventType.CREATED, actorId, actorName);
+		e.setToUserId(ownerId);
+		e.setToStatus(Status.TO_DO);
+		e.setPayload(description);
+		e.setMetadata("Task Created");
+		return append(e);
+	}
+
+	public TaskEvent statusChanged(Long taskId, Long actorId, String actorName, Status from, Status to,
+			Long fromUserId, Long toUserId, String toUsername, String comment) {
+		TaskEventType type = TaskEventType.STATUS_CHANGE;
+		String metadata = from + " -> " + to;
+		if (to == Status.REASSIGN) {
+			type = TaskEventType.REASSIGN;
+			metadata = "Reassigned to " + toUsername;
+		} else if (to == Status.COMPLETED) {
+			type = TaskEventType.COMPLETED;
+			metadata = "Task Completed";
+		}
+		TaskEvent e = event(taskId, type, actorId, actorName);
+		e.setFromStatus(from);
+		e.setToStatus(to);
+		e.setFromUserId(fromUserId);
+		e.setToUserId(toUserId);
+		e.setPayload(comment);
+		e.setMetadata(metadata);
+		return append(e);
+	}
+
+	public TaskEvent workLogged(Long taskId, Long actorId, String actorName, LocalDateTime start, long minutes,
+			String comment) {
+		TaskEvent e = event(taskId, TaskEventType.WORK_LOG, actorId, actorName);
+		e.setMinutes(minutes);
+		e.setPayload(comment);
+		long hours = minutes / 60;
+		String duration = (hours > 0 ? hours + "h " : "") + (minutes % 60) + "m";
+		e.setMetadata("Logged " + duration + (start != null ? " for " + start.toLocalDate() : ""));
+		return append(e);
+	}
+
+	public TaskEvent edited(Long taskId, Long actorId, String actorName, List<String> fields) {
+		TaskEvent e = event(taskId, TaskEventType.EDITED, actorId, actorName);
+		e.setPayload(String.join(", ", fields));
+		e.setMetadata("Edited " + String.join(", ", fields));
+		return append(e);
+	}
+
+	/**
+	 * Makes sure a task that predates the event store has its reconstructed
+	 * history written. Call before changing the task's details or logs; the
+	 * backfill commits on its own and sees only what was committed before.
+	 */
+	public void ensureHistory(Long taskId) {
+		if (complete.contains(taskId) || txTasks().created.contains(taskId)) {
+			return;
+		}
+		long last = backfill.backfill(taskId);
+		seqOf(taskId).accumulateAndGet(last, Math::max);
+		complete.add(taskId);
+	}
+
+	// Read side of ensureHistory: the backfill commits on its own, so the read stays a range scan
+	private void backfilledForRead(Long taskId) {
+		if (complete.contains(taskId)) {
+			return;
+		}
+		long last = backfill.backfill(taskId);
+		AtomicLong seq = lastSeq.get(taskId);
+		if (seq != null) {
+			seq.accumulateAndGet(last, Math::max);
+		}
+		complete.add(taskId);
+	}
+
+	@Transactional(readOnly = true)
+	public List<TaskHistoryDTO> getHistory(Long taskId) {
+		backfilledForRead(taskId);
+		return toDtos(eventRepo.findByTaskIdOrderBySeqDesc(taskId));
+	}
+
+	@Transactional(readOnly = true)
+	public CursorPage<TaskHistoryDTO> getHistoryPage(Long taskId, String cursor, Integer size) {
+		long beforeSeq = cursor == null || cursor.isBlank() ? Long.MAX_VALUE : CursorCodec.decodeLong(cursor);
+		int n = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+		backfilledForRead(taskId);
+
+		List<TaskEvent> rows = eventRepo.findByTaskIdAndSeqLessThanOrderBySeqDesc(taskId, beforeSeq,
+				PageRequest.of(0, n + 1));
+		if (rows.size() <= n) {
+			return new CursorPage<>(toDtos(rows), null);
+		}
+		rows = rows.subList(0, n);
+		return new CursorPage<>(toDtos(rows), CursorCodec.encode(rows.get(n - 1).getSeq()));
+	}
+
+	private TaskEvent event(Long taskId, TaskEventType type, Long actorId, String actorName) {
+		TaskEvent e = new TaskEvent();
+		e.setTaskId(taskId);
+		e.setType(type);
+		e.setActorId(actorId);
+		e.setActorName(actorName);
+		e.setCreatedAt(LocalDateTime.now());
+		return e;
+	}
+
+	private TaskEvent append(TaskEvent e) {
+		if (e.getType() == TaskEventType.CREATED) {
+			txTasks().created.add(e.getTaskId());
+		} else {
+			ensureHistory(e.getTaskId());
+		}
+		AtomicLong seq = seqOf(e.getTaskId());
+		e.setSeq(seq.incrementAndGet());
+		eventRepo.save(e);
+		for (TaskEventListener l : listeners) {
+			l.onTaskEvent(e);
+		}
+		return e;
+	}
+
+	private AtomicLong seqOf(Long taskId) {
+		return lastSeq.computeIfAbsent(taskId, id -> new AtomicLong(eventRepo.findMaxSeq(id)));
+	}
+
+	// Tasks a committed transaction created need no backfill
+	private TxTasks txTasks() {
+		TxTasks tasks = (TxTasks) TransactionSynchronizationManager.getResource(TX_KEY);
+		if (tasks == null) {
+			TxTasks bound = new TxTasks();
+			tasks = bound;
+			TransactionSynchronizationManager.bindResource(TX_KEY, bound);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(TX_KEY);
+					if (status == STATUS_COMMITTED) {
+						complete.addAll(bound.created);
+					}
+				}
+			});
+		}
+		return tasks;
+	}
+
+	private List<TaskHistoryDTO> toDtos(List<TaskEvent> events) {
+		List<TaskHistoryDTO> dtos = new ArrayList<>(events.size());
+		for (TaskEvent e : events) {
+			dtos.add(new TaskHistoryDTO(e.getType().name(), e.getActorName(), e.getPayload(), e.getCreatedAt(),
+					e.getMetadata()));
+		}
+		return dtos;
+	}
+}
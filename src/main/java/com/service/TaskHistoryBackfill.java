@@ -0,0 +1,80 @@
+package com.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dto.TaskHistoryDTO;
+import com.entity.TaskEvent;
+import com.entity.TaskEventType;
+import com.repo.TaskEventRepository;
+
+/**
+ * Writes the reconstructed history of a task that predates the event store,
+ * once per task. Each call runs in its own transaction, so the history stays
+ * written even if the caller's transaction rolls back, and it only sees
+ * committed task details and logs, never the caller's pending change.
+ *
+ * The task_backfills row is the guard: of two concurrent callers, the second
+ * insert waits for the first transaction and then fails on the primary key,
+ * by which time the history is there to read.
+ */
+@Service
+public class TaskHistoryBackfill {
+
+	private static final String MARK_SQL = "INSERT INTO task_backfills (task_id, backfilled_at) VALUES (?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TaskEventRepository eventRepo;
+	private final TaskTimelineService legacyTimeline;
+
+	public TaskHistoryBackfill(JdbcTemplate jdbcTemplate, TaskEventRepository eventRepo,
+			TaskTimelineService legacyTimeline) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.eventRepo = eventRepo;
+		this.legacyTimeline = legacyTimeline;
+	}
+
+	/**
+	 * Backfills the task unless that already happened, and returns its last
+	 * committed seq.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public long backfill(Long taskId) {
+		try {
+			jdbcTemplate.update(MARK_SQL, taskId, LocalDateTime.now());
+		} catch (DuplicateKeyException e) {
+			return eventRepo.findMaxSeq(taskId);
+		}
+		// Tasks created since the event store started already have their events
+		long last = eventRepo.findMaxSeq(taskId);
+		if (last > 0) {
+			return last;
+		}
+
+		// Legacy events are written without notifying listeners: counters etc. already include them
+		List<TaskHistoryDTO> legacy = legacyTimeline.getHistory(taskId);
+		List<TaskEvent> rows = new ArrayList<>(legacy.size());
+		for (int i = legacy.size() - 1; i >= 0; i--) { // oldest first
+			TaskHistoryDTO h = legacy.get(i);
+			TaskEvent e = new TaskEvent();
+			e.setTaskId(taskId);
+			e.setSeq(++last);
+			e.setType(TaskEventType.valueOf(h.getEventType()));
+			e.setActorName(h.getUsername());
+			e.setPayload(h.getComment());
+			e.setMetadata(h.getMetadata());
+			e.setCreatedAt(h.getTimestamp());
+			e.setLegacy(true);
+			rows.add(e);
+		}
+		eventRepo.saveAll(rows);
+		return last;
+	}
+}
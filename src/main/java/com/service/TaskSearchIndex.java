@@ -0,0 +1,1148 @@
+package com.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.dto.TaskSearchHit;
+import com.dto.TaskSearchResponse;
+import com.entity.Status;
+import com.entity.TaskEvent;
+import com.util.TransactionHooks;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory inverted index over task title, description and comment plus the
+ * status/work-log comments of each task. Terms live in a sorted map so a
+ * prefix query is a range scan; postings keep token positions for phrase
+ * queries. Results are ranked by TF-IDF.
+ *
+ * Kept current from the task event stream: a transaction's events are
+ * merged per task and applied once after commit. The index is saved to
+ * search.index.path periodically and on shutdown; on start it is loaded from
+ * there and only the events written since the snapshot are replayed. It is
+ * built once from the tables instead when there is no snapshot, or when the
+ * snapshot was written for another database (see Stamp).
+ */
+@Service
+public class TaskSearchIndex implements TaskEventListener {
+
+	private static final int MAGIC = 0x54534958;
+	private static final int FORMAT = 2;
+
+	// Positions: title, description and comment first, appended comments from NOTES_START.
+	// The gaps keep a phrase from matching across two fields.
+	private static final int FIELD_GAP = 8;
+	private static final int NOTES_START = 1 << 20;
+
+	private static final Object PENDING_KEY = new Object();
+
+	// Notes one transaction may add to a task before the task is reloaded whole instead
+	private static final int MAX_PENDING_NOTES = 64;
+
+	// Prefix queries expand to at most this many terms
+	private static final int MAX_EXPANSIONS = 200;
+
+	// A listing with a date range stops counting after this many tasks checked, once its page is full
+	private static final int MAX_UNRANKED_SCAN = 100_000;
+
+	private static final BitSet NO_TASKS = new BitSet();
+
+	// Worst hit first, so the heap of the best hits can drop it; reversed, the result order
+	private static final Comparator<TaskSearchHit> WORST_FIRST = Comparator.comparingDouble(TaskSearchHit::getScore)
+			.thenComparing(TaskSearchHit::getTaskId);
+
+	// Events committed shortly before a snapshot may carry an older timestamp; replay a bit earlier
+	private static final long REPLAY_MARGIN_MS = 5 * 60 * 1000L;
+
+	private static final String FIELDS_SQL = "SELECT id, title, description, comment, status, user_id, created_at FROM task";
+
+	private static final class Doc {
+		Status status;
+		Long ownerId;
+		LocalDate createdAt;
+		String title;
+		Map<String, int[]> fieldTerms = Collections.emptyMap();
+		Map<String, int[]> noteTerms = new HashMap<>();
+		int nextNotePos = NOTES_START;
+		long lastSeq;
+	}
+
+	private record Fields(long id, String title, String description, String comment, Status status, Long ownerId,
+			LocalDate createdAt) {
+	}
+
+	/**
+	 * Which database a snapshot was taken from: its URL and its first task
+	 * event, which a recreated database does not share, plus the newest event
+	 * id, which the database can only have grown past since.
+	 */
+	private record Stamp(String database, long lastEventId) {
+
+		boolean matches(Stamp current) {
+			return database.equals(current.database()) && lastEventId <= current.lastEventId();
+		}
+	}
+
+	// One query clause: a single term or phrase (terms), or a prefix
+	private record Clause(List<String> terms, String prefix) {
+	}
+
+	/**
+	 * Task ids by status and by assignee, so a filtered search visits the
+	 * tasks that pass instead of every document. All tasks and each status
+	 * are bitsets over the task id, which a newest-first listing walks down
+	 * from the highest id; an assignee holds a small share, so a plain set.
+	 */
+	private static final class Filters {
+		final BitSet all = new BitSet();
+		final Map<Status, BitSet> byStatus = new EnumMap<>(Status.class);
+		final Map<Long, Set<Long>> byOwner = new HashMap<>();
+
+		void add(long id, Doc d) {
+			all.set(bit(id));
+			if (d.status != null) {
+				byStatus.computeIfAbsent(d.status, k -> new BitSet()).set(bit(id));
+			}
+			if (d.ownerId != null) {
+				byOwner.computeIfAbsent(d.ownerId, k -> new HashSet<>()).add(id);
+			}
+		}
+
+		void remove(long id, Doc d) {
+			all.clear(bit(id));
+			if (d.status != null && byStatus.containsKey(d.status)) {
+				byStatus.get(d.status).clear(bit(id));
+			}
+			Set<Long> owned = d.ownerId == null ? null : byOwner.get(d.ownerId);
+			if (owned != null) {
+				owned.remove(id);
+				if (owned.isEmpty()) {
+					byOwner.remove(d.ownerId);
+				}
+			}
+		}
+
+		BitSet status(Status status) {
+			return byStatus.getOrDefault(status, NO_TASKS);
+		}
+
+		Set<Long> owned(Long ownerId) {
+			return byOwner.getOrDefault(ownerId, Set.of());
+		}
+	}
+
+	// The best hits seen so far, up to keep of them, and the number of matches in all
+	private static final class TopHits {
+		final int keep;
+		final PriorityQueue<TaskSearchHit> heap = new PriorityQueue<>(WORST_FIRST);
+		long total;
+		boolean exact = true;
+
+		TopHits(int keep) {
+			this.keep = keep;
+		}
+
+		void offer(long id, Doc d, double score) {
+			TaskSearchHit worst = heap.peek();
+			if (heap.size() == keep
+					&& (score < worst.getScore() || (score == worst.getScore() && id < worst.getTaskId()))) {
+				return;
+			}
+			heap.add(new TaskSearchHit(id, d.title, d.status, d.ownerId, d.createdAt, score));
+			if (heap.size() > keep) {
+				heap.poll();
+			}
+		}
+
+		TaskSearchResponse page(int page, int size) {
+			List<TaskSearchHit> ranked = new ArrayList<>(heap);
+			ranked.sort(WORST_FIRST.reversed());
+			int fromIndex = Math.min(page * size, ranked.size());
+			return new TaskSearchResponse(total, exact, page, size,
+					new ArrayList<>(ranked.subList(fromIndex, ranked.size())));
+		}
+	}
+
+	// What one transaction did to one task, applied after commit as a single update
+	private static final class Pending {
+		long seq;
+		boolean fields;
+		// More notes than worth keeping: reload the task and its notes from the tables instead
+		boolean whole;
+		Status status;
+		Long ownerId;
+		final List<String> notes = new ArrayList<>();
+
+		void merge(TaskEvent e) {
+			seq = Math.max(seq, e.getSeq());
+			switch (e.getType()) {
+			case CREATED:
+			case EDITED:
+				fields = true;
+				return;
+			case WORK_LOG:
+				break;
+			default:
+				if (e.getToStatus() != null) {
+					status = e.getToStatus();
+				}
+				if (e.getToUserId() != null) {
+					ownerId = e.getToUserId();
+				}
+			}
+			if (whole || e.getPayload() == null || e.getPayload().isBlank()) {
+				return;
+			}
+			if (notes.size() == MAX_PENDING_NOTES) {
+				whole = true;
+				notes.clear();
+			} else {
+				notes.add(e.getPayload());
+			}
+		}
+	}
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// Guarded by lock
+	private NavigableMap<String, Map<Long, int[]>> postings = new TreeMap<>();
+	private Map<Long, Doc> docs = new HashMap<>();
+	private Filters filters = new Filters();
+
+	// Updates that arrive while the index is still loading are applied once it is in place
+	private final Object readyLock = new Object();
+	private final List<Runnable> pendingUpdates = new ArrayList<>();
+	private volatile boolean ready;
+
+	private final AtomicLong changes = new AtomicLong();
+	private volatile long savedChanges = -1;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	@Value("${search.index.path:data/search-index}")
+	private String indexPath;
+
+	@Value("${search.index.load-fetch-size:1000}")
+	private int loadFetchSize;
+
+	public TaskSearchIndex(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void startLoading() {
+		Thread loader = new Thread(this::load, "task-search-loader");
+		loader.setDaemon(true);
+		loader.start();
+	}
+
+	private void load() {
+		long started = System.currentTimeMillis();
+		Map<Long, Doc> loadedDocs = null;
+		long snapshotAt = 0;
+
+		Path file = Paths.get(indexPath);
+		if (Files.exists(file)) {
+			try (DataInputStream in = new DataInputStream(
+					new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+				snapshotAt = readHeader(in);
+				Stamp stamp = new Stamp(in.readUTF(), in.readLong());
+				if (stamp.matches(stamp())) {
+					loadedDocs = readDocs(in);
+				} else {
+					System.err.println("Search index snapshot is from another database, rebuilding");
+				}
+			} catch (IOException | RuntimeException e) {
+				System.err.println("Search index snapshot unreadable, rebuilding: " + e.getMessage());
+				loadedDocs = null;
+			}
+		}
+
+		List<Runnable> replay = new ArrayList<>();
+		if (loadedDocs == null) {
+			loadedDocs = buildFromTables();
+		} else {
+			replay = eventsSince(snapshotAt - REPLAY_MARGIN_MS);
+		}
+
+		NavigableMap<String, Map<Long, int[]>> loadedPostings = new TreeMap<>();
+		Filters loadedFilters = new Filters();
+		for (Map.Entry<Long, Doc> e : loadedDocs.entrySet()) {
+			addPostings(loadedPostings, e.getKey(), e.getValue());
+			loadedFilters.add(e.getKey(), e.getValue());
+		}
+
+		synchronized (readyLock) {
+			lock.writeLock().lock();
+			try {
+				docs = loadedDocs;
+				postings = loadedPostings;
+				filters = loadedFilters;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			// Updates made from here on run directly; other threads wait on readyLock until the queue is drained
+			ready = true;
+			replay.forEach(Runnable::run);
+			List<Runnable> queued = new ArrayList<>(pendingUpdates);
+			pendingUpdates.clear();
+			queued.forEach(Runnable::run);
+		}
+		System.out.println("Search index ready: " + docs.size() + " tasks in "
+				+ (System.currentTimeMillis() - started) + " ms");
+	}
+
+	// ---- updates ----
+
+	@Override
+	public void onTaskEvent(TaskEvent event) {
+		switch (event.getType()) {
+		case CREATED:
+		case EDITED:
+		case STATUS_CHANGE:
+		case REASSIGN:
+		case COMPLETED:
+		case WORK_LOG:
+			TransactionHooks.collect(PENDING_KEY, HashMap<Long, Pending>::new,
+					pending -> pending.computeIfAbsent(event.getTaskId(), k -> new Pending()).merge(event),
+					this::applyPending);
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void applyPending(Map<Long, Pending> pending) {
+		pending.forEach((taskId, p) -> {
+			if (p.whole) {
+				submitReloadWhole(taskId, p.seq);
+				return;
+			}
+			Fields f = p.fields ? loadFields(taskId) : null;
+			submit(() -> applyMerged(taskId, p, f));
+		});
+	}
+
+	// f: fields read after commit, or null when the transaction did not change them
+	private void applyMerged(long taskId, Pending p, Fields f) {
+		boolean missing = false;
+		lock.writeLock().lock();
+		try {
+			Doc doc = docs.get(taskId);
+			if (doc == null) {
+				missing = true;
+				return;
+			}
+			if (p.seq <= doc.lastSeq) {
+				return;
+			}
+			filters.remove(taskId, doc);
+			if (f != null) {
+				// Read after commit, so status and owner are at least as new as the transitions
+				removePostings(postings, taskId, doc);
+				setFields(doc, f);
+				addPostings(postings, taskId, doc);
+			} else {
+				if (p.status != null) {
+					doc.status = p.status;
+				}
+				if (p.ownerId != null) {
+					doc.ownerId = p.ownerId;
+				}
+			}
+			filters.add(taskId, doc);
+			for (String note : p.notes) {
+				addNote(taskId, doc, note);
+			}
+			doc.lastSeq = p.seq;
+			changes.incrementAndGet();
+		} finally {
+			lock.writeLock().unlock();
+			// Task not indexed yet (e.g. created while a snapshot was written): index it whole
+			if (missing) {
+				submitReloadWhole(taskId, p.seq);
+			}
+		}
+	}
+
+	private void submitReloadWhole(long taskId, long seq) {
+		Doc doc = loadDoc(taskId);
+		if (doc != null) {
+			submit(() -> replaceDoc(taskId, doc, seq));
+		}
+	}
+
+	private void replaceDoc(long taskId, Doc doc, long seq) {
+		lock.writeLock().lock();
+		try {
+			Doc old = docs.put(taskId, doc);
+			if (old != null) {
+				removePostings(postings, taskId, old);
+				filters.remove(taskId, old);
+				seq = Math.max(seq, old.lastSeq);
+			}
+			doc.lastSeq = seq;
+			addPostings(postings, taskId, doc);
+			filters.add(taskId, doc);
+			changes.incrementAndGet();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void submitReload(long taskId, long seq) {
+		Fields f = loadFields(taskId);
+		if (f != null) {
+			submit(() -> applyFields(f, seq));
+		}
+	}
+
+	private void submit(Runnable update) {
+		synchronized (readyLock) {
+			if (!ready) {
+				pendingUpdates.add(update);
+				return;
+			}
+		}
+		update.run();
+	}
+
+	private void applyFields(Fields f, long seq) {
+		lock.writeLock().lock();
+		try {
+			Doc doc = docs.get(f.id());
+			if (doc == null) {
+				doc = new Doc();
+				docs.put(f.id(), doc);
+			} else {
+				removePostings(postings, f.id(), doc);
+				filters.remove(f.id(), doc);
+			}
+			setFields(doc, f);
+			doc.lastSeq = Math.max(doc.lastSeq, seq);
+			addPostings(postings, f.id(), doc);
+			filters.add(f.id(), doc);
+			changes.incrementAndGet();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void applyTransition(long taskId, long seq, Status status, Long ownerId, String note) {
+		boolean missing = false;
+		lock.writeLock().lock();
+		try {
+			Doc doc = docs.get(taskId);
+			if (doc == null) {
+				missing = true;
+				return;
+			}
+			if (seq <= doc.lastSeq) {
+				return;
+			}
+			filters.remove(taskId, doc);
+			if (status != null) {
+				doc.status = status;
+			}
+			if (ownerId != null) {
+				doc.ownerId = ownerId;
+			}
+			filters.add(taskId, doc);
+			addNote(taskId, doc, note);
+			doc.lastSeq = seq;
+			changes.incrementAndGet();
+		} finally {
+			lock.writeLock().unlock();
+			// Task not indexed yet (e.g. created while a snapshot was written): index it whole
+			if (missing) {
+				submitReload(taskId, seq);
+			}
+		}
+	}
+
+	private void applyNote(long taskId, long seq, String note) {
+		applyTransition(taskId, seq, null, null, note);
+	}
+
+	private void setFields(Doc doc, Fields f) {
+		doc.status = f.status();
+		doc.ownerId = f.ownerId();
+		doc.createdAt = f.createdAt();
+		doc.title = f.title();
+
+		Map<String, int[]> terms = new HashMap<>();
+		int pos = 0;
+		for (String text : new String[] { f.title(), f.description(), f.comment() }) {
+			List<String> tokens = tokenize(text);
+			for (String t : tokens) {
+				if (pos >= NOTES_START) {
+					break;
+				}
+				terms.merge(t, new int[] { pos++ }, TaskSearchIndex::concat);
+			}
+			pos += FIELD_GAP;
+		}
+		doc.fieldTerms = terms;
+	}
+
+	// Appended positions are always past every existing one, so postings stay sorted
+	private void addNote(long taskId, Doc doc, String text) {
+		List<String> tokens = tokenize(text);
+		if (tokens.isEmpty()) {
+			return;
+		}
+		for (String t : tokens) {
+			int[] p = { doc.nextNotePos++ };
+			doc.noteTerms.merge(t, p, TaskSearchIndex::concat);
+			postings.computeIfAbsent(t, k -> new HashMap<>()).merge(taskId, p, TaskSearchIndex::concat);
+		}
+		doc.nextNotePos += FIELD_GAP;
+	}
+
+	private static void addPostings(NavigableMap<String, Map<Long, int[]>> target, Long id, Doc doc) {
+		Set<String> terms = new HashSet<>(doc.fieldTerms.keySet());
+		terms.addAll(doc.noteTerms.keySet());
+		for (String t : terms) {
+			int[] field = doc.fieldTerms.get(t);
+			int[] note = doc.noteTerms.get(t);
+			int[] all = field == null ? note : note == null ? field : concat(field, note);
+			target.computeIfAbsent(t, k -> new HashMap<>()).put(id, all);
+		}
+	}
+
+	private static void removePostings(NavigableMap<String, Map<Long, int[]>> target, Long id, Doc doc) {
+		Set<String> terms = new HashSet<>(doc.fieldTerms.keySet());
+		terms.addAll(doc.noteTerms.keySet());
+		for (String t : terms) {
+			Map<Long, int[]> p = target.get(t);
+			if (p != null) {
+				p.remove(id);
+				if (p.isEmpty()) {
+					target.remove(t);
+				}
+			}
+		}
+	}
+
+	// ---- queries ----
+
+	/**
+	 * Every clause of the query must match. Clauses are words, "quoted
+	 * phrases" and prefixes ending in '*'. An empty query matches every task
+	 * that passes the filters, newest first.
+	 */
+	public TaskSearchResponse search(String query, Status status, Long assigneeId, LocalDate from, LocalDate to,
+			int page, int size) {
+		List<Clause> clauses = parse(query);
+		TopHits top = new TopHits((page + 1) * size);
+
+		lock.readLock().lock();
+		try {
+			if (clauses.isEmpty()) {
+				list(top, status, assigneeId, from, to);
+			} else {
+				rank(top, clauses, status, assigneeId, from, to);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return top.page(page, size);
+	}
+
+	// Caller holds the read lock. Status and assignee come straight from the filter sets, so without a
+	// date range this stops at the end of the page; with one, each task down the ids is checked
+	private void list(TopHits top, Status status, Long assigneeId, LocalDate from, LocalDate to) {
+		BitSet candidates = status == null ? filters.all : filters.status(status);
+		if (assigneeId != null) {
+			BitSet owned = new BitSet();
+			for (Long id : filters.owned(assigneeId)) {
+				owned.set(bit(id));
+			}
+			owned.and(candidates);
+			candidates = owned;
+		}
+		boolean dated = from != null || to != null;
+
+		long matched = 0;
+		long scanned = 0;
+		for (int i = candidates.length() - 1; i >= 0; i = candidates.previousSetBit(i - 1)) {
+			if (matched >= top.keep && (!dated || scanned >= MAX_UNRANKED_SCAN)) {
+				top.exact = !dated;
+				break;
+			}
+			Doc d = docs.get((long) i);
+			scanned++;
+			if (d == null || !passes(d, null, null, from, to)) {
+				continue;
+			}
+			if (matched++ < top.keep) {
+				top.offer(i, d, 0);
+			}
+		}
+		top.total = dated ? matched : candidates.cardinality();
+	}
+
+	// Caller holds the read lock. The smallest of the rarest clause and the filter sets is walked; the other
+	// clauses and filters are lookups per task, so a common term costs nothing next to a rare one
+	private void rank(TopHits top, List<Clause> clauses, Status status, Long assigneeId, LocalDate from,
+			LocalDate to) {
+		List<Matcher> matchers = new ArrayList<>();
+		for (Clause c : clauses) {
+			Matcher m = matcher(c);
+			if (m == null) {
+				return;
+			}
+			matchers.add(m);
+		}
+		matchers.sort(Comparator.comparingLong(Matcher::size));
+
+		LongConsumer visit = id -> {
+			Doc d = docs.get(id);
+			if (d == null || !passes(d, status, assigneeId, from, to)) {
+				return;
+			}
+			double score = 0;
+			for (Matcher m : matchers) {
+				double s = m.score(id);
+				if (s < 0) {
+					return;
+				}
+				score += s;
+			}
+			top.total++;
+			top.offer(id, d, score);
+		};
+
+		long rarest = matchers.get(0).size();
+		Set<Long> owned = assigneeId == null ? null : filters.owned(assigneeId);
+		BitSet withStatus = status == null ? null : filters.status(status);
+		long ownedCount = owned == null ? Long.MAX_VALUE : owned.size();
+		long statusCount = withStatus == null ? Long.MAX_VALUE : withStatus.cardinality();
+		if (ownedCount < rarest && ownedCount <= statusCount) {
+			for (Long id : owned) {
+				visit.accept(id);
+			}
+		} else if (statusCount < rarest) {
+			for (int i = withStatus.nextSetBit(0); i >= 0; i = withStatus.nextSetBit(i + 1)) {
+				visit.accept(i);
+			}
+		} else {
+			matchers.get(0).forEachId(visit);
+		}
+	}
+
+	private boolean passes(Doc d, Status status, Long assigneeId, LocalDate from, LocalDate to) {
+		if (status != null && d.status != status) {
+			return false;
+		}
+		if (assigneeId != null && !assigneeId.equals(d.ownerId)) {
+			return false;
+		}
+		if (from != null && (d.createdAt == null || d.createdAt.isBefore(from))) {
+			return false;
+		}
+		return to == null || (d.createdAt != null && !d.createdAt.isAfter(to));
+	}
+
+	// null when the clause matches no task
+	private Matcher matcher(Clause c) {
+		List<Map<Long, int[]>> lists = new ArrayList<>();
+		if (c.prefix() != null) {
+			for (Map<Long, int[]> p : postings.subMap(c.prefix(), true, c.prefix() + Character.MAX_VALUE, false)
+					.values()) {
+				if (lists.size() == MAX_EXPANSIONS) {
+					break;
+				}
+				lists.add(p);
+			}
+		} else {
+			for (String t : c.terms()) {
+				Map<Long, int[]> p = postings.get(t);
+				if (p == null) {
+					return null;
+				}
+				lists.add(p);
+			}
+		}
+		return lists.isEmpty() ? null : new Matcher(lists, c.prefix() != null);
+	}
+
+	/**
+	 * One clause against the postings: a term or phrase needs every list to
+	 * hold the task (at adjacent positions for a phrase), a prefix any of its
+	 * expansions. Scored per task by lookup, never by building a map of all
+	 * the tasks it matches.
+	 */
+	private final class Matcher {
+		final List<Map<Long, int[]>> lists;
+		final double[] idf;
+		final boolean any;
+		// A prefix walked as the rarest clause scores all its tasks in one pass over the expansions
+		Map<Long, Double> scores;
+
+		Matcher(List<Map<Long, int[]>> lists, boolean any) {
+			this.lists = lists;
+			this.any = any;
+			this.idf = new double[lists.size()];
+			for (int i = 0; i < idf.length; i++) {
+				idf[i] = idf(lists.get(i).size());
+			}
+		}
+
+		// Tasks it can match at most
+		long size() {
+			long size = any ? 0 : Long.MAX_VALUE;
+			for (Map<Long, int[]> l : lists) {
+				size = any ? size + l.size() : Math.min(size, l.size());
+			}
+			return size;
+		}
+
+		// TF-IDF of the task, or -1 when the clause does not match it
+		double score(long id) {
+			if (scores != null) {
+				return scores.getOrDefault(id, -1.0);
+			}
+			if (any) {
+				double score = -1;
+				for (int i = 0; i < lists.size(); i++) {
+					int[] pos = lists.get(i).get(id);
+					if (pos != null) {
+						score = Math.max(score, 0) + tf(pos) * idf[i];
+					}
+				}
+				return score;
+			}
+			int[][] positions = new int[lists.size()][];
+			double score = 0;
+			for (int i = 0; i < lists.size(); i++) {
+				positions[i] = lists.get(i).get(id);
+				if (positions[i] == null) {
+					return -1;
+				}
+				score += tf(positions[i]) * idf[i];
+			}
+			return positions.length == 1 || containsPhrase(positions) ? score : -1;
+		}
+
+		void forEachId(LongConsumer action) {
+			if (!any) {
+				Map<Long, int[]> rarest = Collections.min(lists, Comparator.comparingInt(Map::size));
+				for (Long id : rarest.keySet()) {
+					action.accept(id);
+				}
+				return;
+			}
+			Map<Long, Double> all = new HashMap<>();
+			for (int i = 0; i < lists.size(); i++) {
+				double idfi = idf[i];
+				lists.get(i).forEach((id, pos) -> all.merge(id, tf(pos) * idfi, Double::sum));
+			}
+			scores = all;
+			for (Long id : all.keySet()) {
+				action.accept(id);
+			}
+		}
+	}
+
+	private static boolean containsPhrase(int[][] positions) {
+		for (int start : positions[0]) {
+			boolean found = true;
+			for (int i = 1; i < positions.length; i++) {
+				if (Arrays.binarySearch(positions[i], start + i) < 0) {
+					found = false;
+					break;
+				}
+			}
+			if (found) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private double tf(int[] positions) {
+		return 1 + Math.log(positions.length);
+	}
+
+	private double idf(int docFreq) {
+		return Math.log(1 + (double) docs.size() / docFreq);
+	}
+
+	private static List<Clause> parse(String query) {
+		List<Clause> clauses = new ArrayList<>();
+		if (query == null) {
+			return clauses;
+		}
+		String[] parts = query.split("\"", -1);
+		for (int i = 0; i < parts.length; i++) {
+			if (i % 2 == 1) {
+				List<String> phrase = tokenize(parts[i]);
+				if (!phrase.isEmpty()) {
+					clauses.add(new Clause(phrase, null));
+				}
+				continue;
+			}
+			for (String word : parts[i].trim().split("\\s+")) {
+				if (word.endsWith("*")) {
+					List<String> t = tokenize(word.substring(0, word.length() - 1));
+					if (t.size() == 1) {
+						clauses.add(new Clause(null, t.get(0)));
+						continue;
+					}
+				}
+				for (String t : tokenize(word)) {
+					clauses.add(new Clause(List.of(t), null));
+				}
+			}
+		}
+		return clauses;
+	}
+
+	static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<>();
+		if (text == null || text.isEmpty()) {
+			return tokens;
+		}
+		String lower = text.toLowerCase(Locale.ROOT);
+		int start = -1;
+		for (int i = 0; i <= lower.length(); i++) {
+			boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+			if (word && start < 0) {
+				start = i;
+			} else if (!word && start >= 0) {
+				tokens.add(lower.substring(start, i));
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+
+	// Task ids are sequence values, far below 2^31
+	private static int bit(long id) {
+		return Math.toIntExact(id);
+	}
+
+	private static int[] concat(int[] a, int[] b) {
+		int[] r = Arrays.copyOf(a, a.length + b.length);
+		System.arraycopy(b, 0, r, a.length, b.length);
+		return r;
+	}
+
+	// ---- loading from the tables ----
+
+	private Fields loadFields(long taskId) {
+		List<Fields> rows = jdbcTemplate.query(FIELDS_SQL + " WHERE id = ?", (rs, i) -> fields(rs), taskId);
+		return rows.isEmpty() ? null : rows.get(0);
+	}
+
+	// One task with its notes, the way buildFromTables indexes it
+	private Doc loadDoc(long taskId) {
+		Fields f = loadFields(taskId);
+		if (f == null) {
+			return null;
+		}
+		Doc doc = new Doc();
+		setFields(doc, f);
+		RowCallbackHandler notes = rs -> addNoteTo(doc, rs.getString(1));
+		jdbcTemplate.query("SELECT comment FROM task_detail WHERE task_id = ? AND comment IS NOT NULL ORDER BY id",
+				notes, taskId);
+		jdbcTemplate.query("SELECT comment FROM work_logs WHERE task_id = ? AND comment IS NOT NULL ORDER BY id",
+				notes, taskId);
+		return doc;
+	}
+
+	private Fields fields(java.sql.ResultSet rs) throws java.sql.SQLException {
+		int status = rs.getInt("status");
+		Status s = rs.wasNull() ? null : Status.values()[status];
+		long owner = rs.getLong("user_id");
+		Long ownerId = rs.wasNull() ? null : owner;
+		return new Fields(rs.getLong("id"), rs.getString("title"), rs.getString("description"),
+				rs.getString("comment"), s, ownerId, rs.getObject("created_at", LocalDate.class));
+	}
+
+	private Map<Long, Doc> buildFromTables() {
+		Map<Long, Doc> built = new HashMap<>();
+
+		// Read first: an event committed during the scan is then replayed rather than lost
+		Map<Long, Long> lastSeqs = new HashMap<>();
+		jdbcTemplate.query("SELECT task_id, MAX(seq) FROM task_events GROUP BY task_id",
+				(RowCallbackHandler) rs -> lastSeqs.put(rs.getLong(1), rs.getLong(2)));
+
+		stream(FIELDS_SQL, rs -> {
+			Fields f = fields(rs);
+			Doc doc = new Doc();
+			setFields(doc, f);
+			doc.lastSeq = lastSeqs.getOrDefault(f.id(), 0L);
+			built.put(f.id(), doc);
+		});
+
+		RowCallbackHandler notes = rs -> {
+			Doc doc = built.get(rs.getLong(1));
+			if (doc != null) {
+				addNoteTo(doc, rs.getString(2));
+			}
+		};
+		stream("SELECT task_id, comment FROM task_detail WHERE comment IS NOT NULL ORDER BY id", notes);
+		stream("SELECT task_id, comment FROM work_logs WHERE comment IS NOT NULL ORDER BY id", notes);
+		return built;
+	}
+
+	// addNote without postings: used while building, postings are derived afterwards
+	private void addNoteTo(Doc doc, String text) {
+		List<String> tokens = tokenize(text);
+		for (String t : tokens) {
+			doc.noteTerms.merge(t, new int[] { doc.nextNotePos++ }, TaskSearchIndex::concat);
+		}
+		doc.nextNotePos += FIELD_GAP;
+	}
+
+	private List<Runnable> eventsSince(long epochMillis) {
+		List<Runnable> updates = new ArrayList<>();
+		Set<Long> reload = new HashSet<>();
+		stream("SELECT task_id, seq, type, to_status, to_user_id, payload FROM task_events WHERE created_at >= ?"
+				+ " ORDER BY created_at, seq", rs -> {
+					long taskId = rs.getLong("task_id");
+					long seq = rs.getLong("seq");
+					String type = rs.getString("type");
+					String status = rs.getString("to_status");
+					long user = rs.getLong("to_user_id");
+					Long userId = rs.wasNull() ? null : user;
+					String payload = rs.getString("payload");
+					if ("CREATED".equals(type) || "EDITED".equals(type)) {
+						reload.add(taskId);
+					} else if ("WORK_LOG".equals(type)) {
+						updates.add(() -> applyNote(taskId, seq, payload));
+					} else {
+						Status to = status == null ? null : Status.valueOf(status);
+						updates.add(() -> applyTransition(taskId, seq, to, userId, payload));
+					}
+				}, new Timestamp(epochMillis));
+		for (Long taskId : reload) {
+			Fields f = loadFields(taskId);
+			if (f != null) {
+				updates.add(() -> applyFields(f, 0));
+			}
+		}
+		return updates;
+	}
+
+	private void stream(String sql, RowCallbackHandler handler, Object... args) {
+		jdbcTemplate.query(con -> {
+			java.sql.PreparedStatement ps = con.prepareStatement(sql, java.sql.ResultSet.TYPE_FORWARD_ONLY,
+					java.sql.ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(loadFetchSize);
+			for (int i = 0; i < args.length; i++) {
+				ps.setObject(i + 1, args[i]);
+			}
+			return ps;
+		}, handler);
+	}
+
+	// ---- snapshot ----
+
+	@Scheduled(fixedDelayString = "${search.index.snapshot-interval-ms:600000}",
+			initialDelayString = "${search.index.snapshot-interval-ms:600000}")
+	public void snapshot() {
+		if (!ready || changes.get() == savedChanges) {
+			return;
+		}
+		// Stamp first: the copy then holds at least every event it names
+		Stamp stamp;
+		try {
+			stamp = stamp();
+		} catch (DataAccessException e) {
+			System.err.println("Failed to save search index: " + e.getMessage());
+			return;
+		}
+		long version;
+		Map<Long, Doc> copy;
+		lock.readLock().lock();
+		try {
+			version = changes.get();
+			copy = copyDocs();
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		Path file = Paths.get(indexPath);
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try {
+			if (file.getParent() != null) {
+				Files.createDirectories(file.getParent());
+			}
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+				writeSnapshot(out, stamp, copy);
+			}
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			savedChanges = version;
+		} catch (IOException e) {
+			System.err.println("Failed to save search index: " + e.getMessage());
+		}
+	}
+
+	// Caller holds the read lock. Term arrays are replaced, never changed, so they can be shared.
+	private Map<Long, Doc> copyDocs() {
+		Map<Long, Doc> copy = new HashMap<>(Math.max(16, docs.size() * 4 / 3));
+		for (Map.Entry<Long, Doc> e : docs.entrySet()) {
+			Doc d = e.getValue();
+			Doc c = new Doc();
+			c.status = d.status;
+			c.ownerId = d.ownerId;
+			c.createdAt = d.createdAt;
+			c.title = d.title;
+			c.fieldTerms = d.fieldTerms;
+			c.noteTerms = new HashMap<>(d.noteTerms);
+			c.nextNotePos = d.nextNotePos;
+			c.lastSeq = d.lastSeq;
+			copy.put(e.getKey(), c);
+		}
+		return copy;
+	}
+
+	private Stamp stamp() {
+		String url = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getURL());
+		List<String> first = jdbcTemplate.query(
+				"SELECT id, created_at FROM task_events ORDER BY id FETCH FIRST 1 ROW ONLY",
+				(rs, i) -> rs.getLong(1) + "@" + rs.getTimestamp(2));
+		Long last = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM task_events", Long.class);
+		return new Stamp(url + "|" + (first.isEmpty() ? "" : first.get(0)), last);
+	}
+
+	@PreDestroy
+	void saveOnShutdown() {
+		snapshot();
+	}
+
+	private static void writeSnapshot(DataOutputStream out, Stamp stamp, Map<Long, Doc> docs) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT);
+		out.writeLong(System.currentTimeMillis());
+		out.writeUTF(stamp.database());
+		out.writeLong(stamp.lastEventId());
+		out.writeInt(docs.size());
+		for (Map.Entry<Long, Doc> e : docs.entrySet()) {
+			Doc d = e.getValue();
+			out.writeLong(e.getKey());
+			out.writeByte(d.status == null ? -1 : d.status.ordinal());
+			out.writeLong(d.ownerId == null ? -1 : d.ownerId);
+			out.writeLong(d.createdAt == null ? Long.MIN_VALUE : d.createdAt.toEpochDay());
+			writeString(out, d.title);
+			out.writeInt(d.nextNotePos);
+			out.writeLong(d.lastSeq);
+			writeTerms(out, d.fieldTerms);
+			writeTerms(out, d.noteTerms);
+		}
+	}
+
+	private long readHeader(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+			throw new IOException("not a search index snapshot");
+		}
+		return in.readLong();
+	}
+
+	private Map<Long, Doc> readDocs(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		Map<Long, Doc> result = new HashMap<>(Math.max(16, count * 4 / 3));
+		for (int i = 0; i < count; i++) {
+			long id = in.readLong();
+			Doc d = new Doc();
+			byte status = in.readByte();
+			d.status = status < 0 ? null : Status.values()[status];
+			long owner = in.readLong();
+			d.ownerId = owner < 0 ? null : owner;
+			long day = in.readLong();
+			d.createdAt = day == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(day);
+			d.title = readString(in);
+			d.nextNotePos = in.readInt();
+			d.lastSeq = in.readLong();
+			d.fieldTerms = readTerms(in);
+			d.noteTerms = readTerms(in);
+			result.put(id, d);
+		}
+		return result;
+	}
+
+	private static void writeTerms(DataOutputStream out, Map<String, int[]> terms) throws IOException {
+		out.writeInt(terms.size());
+		for (Map.Entry<String, int[]> t : terms.entrySet()) {
+			out.writeUTF(t.getKey());
+			out.writeInt(t.getValue().length);
+			for (int p : t.getValue()) {
+				out.writeInt(p);
+			}
+		}
+	}
+
+	private static Map<String, int[]> readTerms(DataInputStream in) throws IOException {
+		int n = in.readInt();
+		Map<String, int[]> terms = new HashMap<>(Math.max(4, n * 4 / 3));
+		for (int i = 0; i < n; i++) {
+			String term = in.readUTF();
+			int[] p = new int[in.readInt()];
+			for (int j = 0; j < p.length; j++) {
+				p[j] = in.readInt();
+			}
+			terms.put(term, p);
+		}
+		return terms;
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		out.writeBoolean(s != null);
+		if (s != null) {
+			out.writeUTF(s.length() > 10_000 ? s.substring(0, 10_000) : s);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+}
@@ -1,15 +1,26 @@
 package com.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
+import com.dto.CursorPage;
 import com.dto.TaskRequest;
 import com.dto.TaskResponse;
 import com.entity.Status;
@@ -20,9 +31,11 @@ import com.repo.TaskDetailRepository;
 import com.repo.TaskRepository;
 import com.repo.UserRepository;
 import com.security.CustomUserDetails;
+import com.util.CursorCodec;
 import com.util.JwtUtil;
 
 import jakarta.validation.constraints.NotNull;
+import tools.jackson.databind.json.JsonMapper;
 
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,31 +49,155 @@ public class TaskService {
 	private final TaskDetailRepository taskDetailRepo;
 	private final EmailService mailService;
 	private final com.repo.WorkLogRepository workLogRepo;
+	private final JdbcTemplate jdbcTemplate;
+	private final JsonMapper jsonMapper;
+	private final TaskCounterService counterService;
+	private final TaskEventService eventService;
+	private final WorkLogIntervalIndex intervalIndex;
+	private final WorkLogRollupService rollupService;
+
+	@Value("${tasks.page.default-size:100}")
+	private int defaultPageSize;
+
+	@Value("${tasks.page.max-size:1000}")
+	private int maxPageSize;
+
+	@Value("${tasks.stream.fetch-size:500}")
+	private int streamFetchSize;
 
 	public TaskService(EmailService mailService, TaskRepository taskRepository, JwtUtil jwtUtil,
 			UserRepository userRepository, TaskDetailRepository taskDetailRepo,
-			com.repo.WorkLogRepository workLogRepo) {
+			com.repo.WorkLogRepository workLogRepo, JdbcTemplate jdbcTemplate, JsonMapper jsonMapper,
+			TaskCounterService counterService, TaskEventService eventService, WorkLogIntervalIndex intervalIndex,
+			WorkLogRollupService rollupService) {
 		this.taskRepository = taskRepository;
 		this.jwtUtil = jwtUtil;
 		this.userRepository = userRepository;
 		this.taskDetailRepo = taskDetailRepo;
 		this.mailService = mailService;
 		this.workLogRepo = workLogRepo;
+		this.jdbcTemplate = jdbcTemplate;
+		this.jsonMapper = jsonMapper;
+		this.counterService = counterService;
+		this.eventService = eventService;
+		this.intervalIndex = intervalIndex;
+		this.rollupService = rollupService;
 	}
 
 	public List<TaskResponse> getTasks(@NotNull LocalDate fromDate, @NotNull LocalDate toDate, List<Long> userIds) {
-		List<Task> tasks;
 		if (userIds == null || userIds.isEmpty()) {
-			tasks = taskRepository.findByCreatedAtBetween(fromDate, toDate);
-		} else {
-			tasks = taskRepository.findByUserIdInAndCreatedAtBetween(userIds, fromDate, toDate);
+			return taskRepository.findTaskResponsesByCreatedAtBetween(fromDate, toDate);
 		}
-		return tasks.stream().map(TaskResponse::fromEntity).toList();
+		return taskRepository.findTaskResponsesByUserIdInAndCreatedAtBetween(userIds, fromDate, toDate);
 	}
 
 	public List<TaskResponse> getTasks() {
-		List<Task> tasks = taskRepository.findAll();
-		return tasks.stream().map(TaskResponse::fromEntity).toList();
+		return taskRepository.findAllTaskResponses();
+	}
+
+	/**
+	 * Keyset page over all tasks, or tasks created in [fromDate, toDate] when a
+	 * range is given (optionally limited to userIds). Ordered by task id.
+	 */
+	@Transactional(readOnly = true)
+	public CursorPage<TaskResponse> getTaskPage(LocalDate fromDate, LocalDate toDate, List<Long> userIds,
+			String cursor, Integer size) {
+		long afterId = cursor == null || cursor.isBlank() ? 0L : CursorCodec.decodeLong(cursor);
+		Pageable page = pageOf(size);
+		List<TaskResponse> rows;
+		if (fromDate == null || toDate == null) {
+			rows = taskRepository.findTaskResponsesAfter(afterId, page);
+		} else if (userIds == null || userIds.isEmpty()) {
+			rows = taskRepository.findTaskResponsesByCreatedAtBetweenAfter(fromDate, toDate, afterId, page);
+		} else {
+			rows = taskRepository.findTaskResponsesByUserIdInAndCreatedAtBetweenAfter(userIds, fromDate, toDate,
+					afterId, page);
+		}
+		return toPage(rows, page.getPageSize() - 1);
+	}
+
+	@Transactional(readOnly = true)
+	public CursorPage<TaskResponse> getUserTaskPage(Long userId, String cursor, Integer size) {
+		long afterId = cursor == null || cursor.isBlank() ? 0L : CursorCodec.decodeLong(cursor);
+		Pageable page = pageOf(size);
+		return toPage(taskRepository.findTaskResponsesByUserIdAfter(userId, afterId, page), page.getPageSize() - 1);
+	}
+
+	// Fetches one extra row to know whether another page exists
+	private Pageable pageOf(Integer size) {
+		int n = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+		return PageRequest.of(0, n + 1);
+	}
+
+	private CursorPage<TaskResponse> toPage(List<TaskResponse> rows, int size) {
+		if (rows.size() <= size) {
+			return new CursorPage<>(rows, null);
+		}
+		List<TaskResponse> items = rows.subList(0, size);
+		return new CursorPage<>(items, CursorCodec.encode(items.get(size - 1).getId()));
+	}
+
+	/**
+	 * Writes matching tasks as NDJSON straight off a forward-only JDBC cursor, so
+	 * memory stays flat regardless of how many rows match. Filters mirror
+	 * getTaskPage; ownerId limits the stream to one user's tasks.
+	 */
+	@Transactional(readOnly = true)
+	public void streamTasks(LocalDate fromDate, LocalDate toDate, List<Long> userIds, Long ownerId,
+			OutputStream out) {
+		StringBuilder sql = new StringBuilder("""
+				SELECT t.id, u.username, u.id AS user_id, t.title, t.description, t.created_at, t.status,
+				       t.completed_at, t.due_date, t.comment,
+				       EXISTS (SELECT 1 FROM task_detail d WHERE d.task_id = t.id AND d.status = 'REASSIGN') AS reassigned
+				FROM task t JOIN users u ON u.id = t.user_id
+				WHERE 1 = 1
+				""");
+		List<Object> args = new java.util.ArrayList<>();
+		if (ownerId != null) {
+			sql.append(" AND u.id = ?");
+			args.add(ownerId);
+		}
+		if (fromDate != null && toDate != null) {
+			sql.append(" AND t.created_at BETWEEN ? AND ?");
+			args.add(java.sql.Date.valueOf(fromDate));
+			args.add(java.sql.Date.valueOf(toDate));
+			if (userIds != null && !userIds.isEmpty()) {
+				sql.append(" AND u.id IN (").append(String.join(",", java.util.Collections.nCopies(userIds.size(), "?")))
+						.append(")");
+				args.addAll(userIds);
+			}
+		}
+		sql.append(" ORDER BY t.id");
+
+		jdbcTemplate.query(con -> {
+			PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(streamFetchSize);
+			for (int i = 0; i < args.size(); i++) {
+				ps.setObject(i + 1, args.get(i));
+			}
+			return ps;
+		}, (RowCallbackHandler) rs -> {
+			TaskResponse dto = new TaskResponse();
+			dto.setId(rs.getLong("id"));
+			dto.setUserName(rs.getString("username"));
+			dto.setUserId(rs.getLong("user_id"));
+			dto.setTitle(rs.getString("title"));
+			dto.setDescription(rs.getString("description"));
+			dto.setCreatedAt(rs.getObject("created_at", LocalDate.class));
+			int status = rs.getInt("status");
+			dto.setStatus(rs.wasNull() ? null : Status.values()[status]);
+			dto.setCompletedAt(rs.getObject("completed_at", LocalDate.class));
+			dto.setDueDate(rs.getObject("due_date", LocalDate.class));
+			dto.setComment(rs.getString("comment"));
+			dto.setReassigned(rs.getBoolean("reassigned"));
+			try {
+				out.write(jsonMapper.writeValueAsBytes(dto));
+				out.write('\n');
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
 	}
 
 	public ResponseEntity<?> addTask(String authHeader, TaskRequest request) {
@@ -81,6 +218,7 @@ public class TaskService {
 		task.setDueDate(request.getDueDate());
 
 		if (taskRepository.save(task) != null) {
+			eventService.created(task.getId(), userId, user.getUsername(), userId, task.getDescription());
 			return ResponseEntity.ok("Task added successfully");
 		} else {
 			return ResponseEntity.status(500).body("Failed to add task");
@@ -102,26 +240,41 @@ public class TaskService {
 			return ResponseEntity.status(403).body("You are not allowed to edit this task");
 		}
 
+		eventService.ensureHistory(taskId);
+		String actorName = jwtUtil.extractUsername(token);
+
 		// Update fields if provided
-		if (request.getTitle() != null)
+		List<String> edited = new java.util.ArrayList<>();
+		if (request.getTitle() != null && !request.getTitle().equals(task.getTitle())) {
 			task.setTitle(request.getTitle());
-		if (request.getDescription() != null)
+			edited.add("title");
+		}
+		if (request.getDescription() != null && !request.getDescription().equals(task.getDescription())) {
 			task.setDescription(request.getDescription());
-		if (request.getComment() != null)
+			edited.add("description");
+		}
+		if (request.getComment() != null && !request.getComment().equals(task.getComment())) {
 			task.setComment(request.getComment());
+			edited.add("comment");
+		}
+		if (!edited.isEmpty()) {
+			eventService.edited(taskId, loggedInUserId, actorName, edited);
+		}
 
 		// Handle status change logic
 		if (request.getStatus() != null && request.getStatus() != task.getStatus()) {
-			return handleStatusChange(task, request, role, loggedInUserId);
+			return handleStatusChange(task, request, role, loggedInUserId, actorName);
 		}
 
 		taskRepository.save(task);
 		return ResponseEntity.ok("Task updated successfully");
 	}
 
-	private ResponseEntity<?> handleStatusChange(Task task, TaskRequest request, String role, Long loggedInUserId) {
+	private ResponseEntity<?> handleStatusChange(Task task, TaskRequest request, String role, Long loggedInUserId,
+			String actorName) {
 		Status oldStatus = task.getStatus();
 		Status newStatus = request.getStatus();
+		Long oldUserId = task.getUser().getId();
 
 		if ("ROLE_USER".equals(role)) {
 			// Rules for USER
@@ -177,6 +330,8 @@ public class TaskService {
 		}
 
 		taskRepository.save(task);
+		eventService.statusChanged(task.getId(), loggedInUserId, actorName, oldStatus, task.getStatus(), oldUserId,
+				task.getUser().getId(), task.getUser().getUsername(), request.getComment());
 		notifyParties(task, oldStatus, newStatus, loggedInUserId); // Notify BOTH User and Admin
 		return ResponseEntity.ok("Task status updated to " + task.getStatus());
 	}
@@ -270,12 +425,7 @@ public class TaskService {
 
 	public List<TaskResponse> viewTasks(Authentication authentication) {
 		CustomUserDetails user = (CustomUserDetails) authentication.getPrincipal();
-		List<Task> tasks = taskRepository.fetchTasks(user.getUserId());
-		return mapToTaskResponses(tasks);
-	}
-
-	private List<TaskResponse> mapToTaskResponses(List<Task> tasks) {
-		return tasks.stream().map(TaskResponse::fromEntity).toList();
+		return taskRepository.findTaskResponsesByUserId(user.getUserId());
 	}
 
 	public com.dto.UserTaskStatsDto getUserStats(String authHeader) {
@@ -284,17 +434,19 @@ public class TaskService {
 		}
 		String token = authHeader.substring(7);
 		Long userId = jwtUtil.extractUserId(token);
-		User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+
+		// One in-memory lookup instead of five count queries
+		long[] counts = counterService.snapshot(userId);
 
 		com.dto.UserTaskStatsDto stats = new com.dto.UserTaskStatsDto();
 		stats.setUserId(userId);
-		stats.setUsername(user.getUsername());
-		stats.setTotalTasks((int) taskRepository.countByUserId(userId));
+		stats.setUsername(jwtUtil.extractUsername(token));
+		stats.setTotalTasks((int) java.util.Arrays.stream(counts).sum());
 
-		int todo = (int) taskRepository.countByUserIdAndStatus(userId, Status.TO_DO);
-		int inProgress = (int) taskRepository.countByUserIdAndStatus(userId, Status.IN_PROGRESS);
-		int review = (int) taskRepository.countByUserIdAndStatus(userId, Status.REVIEW);
-		int completed = (int) taskRepository.countByUserIdAndStatus(userId, Status.COMPLETED);
+		int todo = (int) counts[Status.TO_DO.ordinal()];
+		int inProgress = (int) counts[Status.IN_PROGRESS.ordinal()];
+		int review = (int) counts[Status.REVIEW.ordinal()];
+		int completed = (int) counts[Status.COMPLETED.ordinal()];
 
 		stats.setPendingTasks(todo + inProgress + review);
 		stats.setCompletedTasks(completed);
@@ -323,6 +475,7 @@ public class TaskService {
 		if (!task.getUser().getId().equals(userId)) {
 			return ResponseEntity.status(403).body("You can only log work for your own tasks");
 		}
+		eventService.ensureHistory(task.getId());
 
 		com.entity.WorkLog log = new com.entity.WorkLog();
 		log.setTask(task);
@@ -337,157 +490,64 @@ public class TaskService {
 			return ResponseEntity.badRequest().body("End time must be after Start time");
 		}
 
-		// Overlap Validation
+		// Overlap Validation (also against logs from the previous day that run past midnight)
 		LocalDateTime start = request.getStartTime();
 		LocalDateTime end = request.getEndTime();
-		LocalDateTime dayStart = start.toLocalDate().atStartOfDay();
-		LocalDateTime dayEnd = start.toLocalDate().atTime(23, 59, 59);
-
-		List<com.entity.WorkLog> dailyLogs = workLogRepo.findByUserIdAndStartTimeBetween(userId, dayStart, dayEnd);
 
-		for (com.entity.WorkLog existing : dailyLogs) {
-			// Check if new interval overlaps with existing interval
-			// Overlap logic: (StartA < EndB) and (EndA > StartB)
-			if (start.isBefore(existing.getEndTime()) && end.isAfter(existing.getStartTime())) {
-				return ResponseEntity.badRequest().body("Time overlap detected with existing log: "
-						+ existing.getStartTime().toLocalTime() + " - " + existing.getEndTime().toLocalTime());
-			}
+		java.util.Map.Entry<LocalDateTime, LocalDateTime> overlap = intervalIndex.tryAdd(userId, start, end);
+		if (overlap != null) {
+			LocalDateTime from = overlap.getKey();
+			return ResponseEntity.badRequest().body("Time overlap detected with existing log: "
+					+ (from.toLocalDate().equals(start.toLocalDate()) ? from.toLocalTime() : from) + " - "
+					+ overlap.getValue().toLocalTime());
 		}
 
 		long minutes = Duration.between(start, end).toMinutes();
 		log.setDurationMinutes(Math.max(0, minutes));
 
 		// Update total worked minutes on task
-		task.setTotalWorkedMinutes(
-				(task.getTotalWorkedMinutes() == null ? 0 : task.getTotalWorkedMinutes()) + minutes);
-		taskRepository.save(task);
+		taskRepository.addWorkedMinutes(task.getId(), log.getDurationMinutes());
 
 		log.setComment(request.getComment());
 
 		workLogRepo.save(log);
+		rollupService.record(userId, task.getId(), start, log.getDurationMinutes());
+		eventService.workLogged(task.getId(), userId, user.getUsername(), start, log.getDurationMinutes(),
+				log.getComment());
 
 		if (request.getStatus() != null && request.getStatus() != task.getStatus()) {
 			TaskRequest tr = new TaskRequest();
 			tr.setStatus(request.getStatus());
 			tr.setComment(request.getComment());
-			return handleStatusChange(task, tr, user.getRole(), userId);
+			return handleStatusChange(task, tr, user.getRole(), userId, user.getUsername());
 		}
 
 		return ResponseEntity.ok("Work logged successfully");
 	}
 
-	public List<com.dto.TaskHistoryDTO> getTaskHistory(Long taskId) {
-		Task task = taskRepository.findById(taskId).orElseThrow(() -> new RuntimeException("Task not found"));
-		List<com.dto.TaskHistoryDTO> history = new java.util.ArrayList<>();
-
-		// 1. Task Creation
-		com.dto.TaskHistoryDTO creation = new com.dto.TaskHistoryDTO();
-		creation.setEventType("CREATED");
-		if (task.getAssignedBy() != null) {
-			User admin = userRepository.findById(task.getAssignedBy()).orElse(null);
-			creation.setUsername(admin != null ? admin.getUsername() : "Admin");
-		} else {
-			creation.setUsername("System");
-		}
-		creation.setTimestamp(task.getCreatedAt().atStartOfDay());
-		creation.setComment(task.getDescription());
-		creation.setMetadata("Task Created");
-		history.add(creation);
-
-		// 2. Status History (TaskDetail)
-		List<com.entity.TaskDetail> details = taskDetailRepo.findByTask_Id(taskId);
-		details.sort(java.util.Comparator.comparing(com.entity.TaskDetail::getStartedAt));
-
-		for (com.entity.TaskDetail d : details) {
-			// Event: Started State
-			com.dto.TaskHistoryDTO startEvent = new com.dto.TaskHistoryDTO();
-			startEvent.setTimestamp(d.getStartedAt());
-			startEvent.setEventType("STATUS_CHANGE");
-			startEvent.setUsername(task.getUser().getUsername()); // Assuming user started it
-
-			if (d.getStatus() == com.entity.Status.REASSIGN) {
-				startEvent.setEventType("REASSIGN");
-				startEvent.setUsername("Admin"); // Usually admin reassigns
-				startEvent.setMetadata("Reassigned to " + task.getUser().getUsername());
-				startEvent.setComment(d.getComment()); // Comment on reassign is valuable at start
-			} else {
-				startEvent.setMetadata("Moved to " + d.getStatus());
-				if (d.getEndedAt() == null && d.getComment() != null) {
-					// Only attach comment to start if it hasn't ended (active comment)
-					// OR if we assume comment was for start.
-					// But usually comment is overwritten on stop.
-					// Let's use logic: if endedAt is null, comment is current status comment.
-					startEvent.setComment(d.getComment());
-				}
-			}
-			history.add(startEvent);
-
-			// Event: Ended State (Transition Out)
-			if (d.getEndedAt() != null) {
-				com.dto.TaskHistoryDTO endEvent = new com.dto.TaskHistoryDTO();
-				endEvent.setTimestamp(d.getEndedAt());
-				endEvent.setEventType("STATUS_CHANGE");
-				endEvent.setUsername(task.getUser().getUsername());
-
-				// Infer transition
-				if (d.getStatus() == com.entity.Status.IN_PROGRESS) {
-					endEvent.setMetadata("Submitted for Review");
-				} else {
-					endEvent.setMetadata("Ended " + d.getStatus());
-				}
-
-				endEvent.setComment(d.getComment()); // The comment explains why it ended/moved to review
-				history.add(endEvent);
+	/**
+	 * Recomputes totalWorkedMinutes from work_logs for every task where they
+	 * disagree. Returns the corrected tasks as taskId -> [stored, actual].
+	 *
+	 * Each fix is a single UPDATE that takes the sum inside the statement and
+	 * only applies while the total is still the drifted value: a task whose
+	 * total moved since the drift query (a work log landed) is left alone
+	 * and checked again on the next run.
+	 */
+	public java.util.Map<Long, long[]> reconcileWorkedMinutes() {
+		java.util.Map<Long, long[]> corrected = new java.util.LinkedHashMap<>();
+		for (Object[] r : taskRepository.findWorkedMinutesDrift()) {
+			long taskId = ((Number) r[0]).longValue();
+			long stored = r[1] == null ? -1 : ((Number) r[1]).longValue();
+			long actual = ((Number) r[2]).longValue();
+			if (taskRepository.resetWorkedMinutesFromLogs(taskId, stored) == 1) {
+				corrected.put(taskId, new long[] { stored, actual });
 			}
 		}
-
-		// 3. Work Logs
-		List<com.entity.WorkLog> logs = workLogRepo.findByTaskId(taskId);
-		for (com.entity.WorkLog log : logs) {
-			com.dto.TaskHistoryDTO h = new com.dto.TaskHistoryDTO();
-			h.setEventType("WORK_LOG");
-			h.setUsername(log.getUser().getUsername());
-			h.setTimestamp(log.getStartTime());
-			h.setComment(log.getComment());
-
-			long hours = log.getDurationMinutes() / 60;
-			long mins = log.getDurationMinutes() % 60;
-			String duration = (hours > 0 ? hours + "h " : "") + mins + "m";
-			h.setMetadata("Logged " + duration);
-			history.add(h);
-		}
-
-		// 4. Completion (if not covered by details)
-		// If task is completed, but we might not have a TaskDetail for the transition
-		// to COMPLETED
-		// (e.g. from Review -> Completed, or direct Admin completion)
-		if (task.getStatus() == com.entity.Status.COMPLETED && task.getCompletedAt() != null) {
-			// Check if we already have an event near completion time?
-			// Usually Review -> Completed doesn't create a TaskDetail.
-			com.dto.TaskHistoryDTO completeEvent = new com.dto.TaskHistoryDTO();
-			completeEvent.setEventType("COMPLETED");
-			completeEvent.setTimestamp(task.getCompletedAt().atTime(23, 59)); // End of day fallback or modify entity to
-																				// have LocalDateTime
-
-			// Improve: If we find a 'stopTaskDetail' that ended recently, use that time?
-			// But Review -> Completed updates the Task, not TaskDetail.
-
-			if (task.getAssignedBy() != null) {
-				User admin = userRepository.findById(task.getAssignedBy()).orElse(null);
-				completeEvent.setUsername(admin != null ? admin.getUsername() : "Admin");
-			} else {
-				completeEvent.setUsername("System");
-			}
-
-			completeEvent.setMetadata("Task Completed");
-			// Prevent duplicate if logic roughly matches
-			history.add(completeEvent);
+		if (!corrected.isEmpty()) {
+			System.err.println("Worked minutes corrected for " + corrected.size() + " tasks");
 		}
-
-		// Sort by timestamp DESC
-		history.sort((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()));
-
-		return history;
+		return corrected;
 	}
 
 	private String row(String key, String value) {
@@ -0,0 +1,65 @@
+package com.service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import com.entity.Status;
+
+/**
+ * The status periods (task_detail rows) of one task, in startedAt order.
+ * labelAt finds the period in effect at a point in time by binary search,
+ * so labelling n work logs costs O(n log d) instead of O(n * d).
+ */
+final class TaskStatusTimeline {
+
+	private LocalDateTime[] starts = new LocalDateTime[4];
+	private LocalDateTime[] ends = new LocalDateTime[4];
+	private Status[] statuses = new Status[4];
+	private int size;
+
+	/** Periods must be added in startedAt order. */
+	void add(LocalDateTime startedAt, LocalDateTime endedAt, Status status) {
+		if (size == starts.length) {
+			starts = Arrays.copyOf(starts, size * 2);
+			ends = Arrays.copyOf(ends, size * 2);
+			statuses = Arrays.copyOf(statuses, size * 2);
+		}
+		starts[size] = startedAt;
+		ends[size] = endedAt;
+		statuses[size] = status;
+		size++;
+	}
+
+	/**
+	 * Label for a work log starting at {@code time}: the last period started
+	 * at or before it decides; "To Do" when there is none.
+	 */
+	String labelAt(LocalDateTime time) {
+		// First period starting after time; the one before it is in effect
+		int lo = 0;
+		int hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (starts[mid].isAfter(time)) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return label(lo - 1, time);
+	}
+
+	static String label(Status status, LocalDateTime endedAt, LocalDateTime time) {
+		if (status == Status.IN_PROGRESS) {
+			return endedAt == null || !time.isAfter(endedAt) ? "In Progress" : "Under Review";
+		}
+		if (status == Status.REASSIGN) {
+			return "Reassigned";
+		}
+		return status.toString();
+	}
+
+	private String label(int index, LocalDateTime time) {
+		return index < 0 ? "To Do" : label(statuses[index], ends[index], time);
+	}
+}
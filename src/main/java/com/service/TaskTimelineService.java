@@ -0,0 +1,184 @@
+package com.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dto.TaskHistoryDTO;
+import com.entity.Status;
+import com.entity.Task;
+import com.repo.TaskDetailRepository;
+import com.repo.TaskRepository;
+import com.repo.UserRepository;
+import com.repo.WorkLogRepository;
+
+/**
+ * Reconstructs the history of a task from task_detail and work_logs, for
+ * tasks that predate the task_events store. Its only caller is
+ * TaskHistoryBackfill, which runs it once per such task, on the first read or
+ * write, and stores the result as legacy events; history reads never come
+ * here after that.
+ *
+ * The backfill needs every event, so the sources (status starts, status
+ * ends, work logs, plus the created/completed markers) are loaded whole and
+ * sorted together rather than merged page by page. Order is
+ * (timestamp DESC, source rank, id DESC); the rank keeps events with the same
+ * timestamp in the order the old full sort produced.
+ */
+@Service
+@Transactional(readOnly = true)
+public class TaskTimelineService {
+
+	private static final int CREATED = 0;
+	private static final int STARTED = 1;
+	private static final int ENDED = 2;
+	private static final int WORK_LOG = 3;
+	private static final int COMPLETED = 4;
+
+	private static final Comparator<Event> ORDER = Comparator.comparing((Event e) -> e.ts).reversed()
+			.thenComparingInt(e -> e.rank)
+			.thenComparing(Comparator.comparingLong((Event e) -> e.id).reversed());
+
+	private static final class Event {
+		final LocalDateTime ts;
+		final int rank;
+		final long id;
+		final Object[] row;
+
+		Event(LocalDateTime ts, int rank, long id, Object[] row) {
+			this.ts = ts;
+			this.rank = rank;
+			this.id = id;
+			this.row = row;
+		}
+	}
+
+	private final TaskRepository taskRepo;
+	private final TaskDetailRepository taskDetailRepo;
+	private final WorkLogRepository workLogRepo;
+	private final UserRepository userRepo;
+
+	public TaskTimelineService(TaskRepository taskRepo, TaskDetailRepository taskDetailRepo,
+			WorkLogRepository workLogRepo, UserRepository userRepo) {
+		this.taskRepo = taskRepo;
+		this.taskDetailRepo = taskDetailRepo;
+		this.workLogRepo = workLogRepo;
+		this.userRepo = userRepo;
+	}
+
+	public List<TaskHistoryDTO> getHistory(Long taskId) {
+		Task task = taskRepo.findById(taskId).orElseThrow(() -> new RuntimeException("Task not found"));
+		return toDtos(task, merge(task));
+	}
+
+	private List<Event> merge(Task task) {
+		Long taskId = task.getId();
+		List<Event> events = new ArrayList<>();
+
+		add(events, STARTED, taskDetailRepo.findTimelineStarts(taskId), 2);
+		add(events, ENDED, taskDetailRepo.findTimelineEnds(taskId), 3);
+		add(events, WORK_LOG, workLogRepo.findTimelineLogs(taskId), 2);
+
+		if (task.getCreatedAt() != null) {
+			events.add(new Event(task.getCreatedAt().atStartOfDay(), CREATED, taskId, null));
+		}
+		if (task.getStatus() == Status.COMPLETED && task.getCompletedAt() != null) {
+			events.add(new Event(task.getCompletedAt().atTime(23, 59), COMPLETED, taskId, null));
+		}
+
+		events.sort(ORDER);
+		return events;
+	}
+
+	private static void add(List<Event> events, int rank, List<Object[]> rows, int tsColumn) {
+		for (Object[] r : rows) {
+			events.add(new Event((LocalDateTime) r[tsColumn], rank, (Long) r[0], r));
+		}
+	}
+
+	private List<TaskHistoryDTO> toDtos(Task task, List<Event> events) {
+		// One lookup for every username the history needs
+		Set<Long> userIds = new HashSet<>();
+		for (Event e : events) {
+			if (e.rank == WORK_LOG && e.row[1] != null) {
+				userIds.add((Long) e.row[1]);
+			} else if ((e.rank == CREATED || e.rank == COMPLETED) && task.getAssignedBy() != null) {
+				userIds.add(task.getAssignedBy());
+			}
+		}
+		Map<Long, String> usernames = new HashMap<>();
+		if (!userIds.isEmpty()) {
+			for (Object[] u : userRepo.findUsernamesByIdIn(userIds)) {
+				usernames.put((Long) u[0], (String) u[1]);
+			}
+		}
+
+		String owner = task.getUser() != null ? task.getUser().getUsername() : null;
+		String assigner = task.getAssignedBy() == null ? "System"
+				: usernames.getOrDefault(task.getAssignedBy(), "Admin");
+
+		List<TaskHistoryDTO> dtos = new ArrayList<>(events.size());
+		for (Event e : events) {
+			TaskHistoryDTO h = new TaskHistoryDTO();
+			h.setTimestamp(e.ts);
+			switch (e.rank) {
+			case CREATED:
+				h.setEventType("CREATED");
+				h.setUsername(assigner);
+				h.setComment(task.getDescription());
+				h.setMetadata("Task Created");
+				break;
+			case STARTED: {
+				Status status = (Status) e.row[1];
+				h.setEventType("STATUS_CHANGE");
+				h.setUsername(owner);
+				if (status == Status.REASSIGN) {
+					h.setEventType("REASSIGN");
+					h.setUsername("Admin");
+					h.setMetadata("Reassigned to " + owner);
+					h.setComment((String) e.row[4]);
+				} else {
+					h.setMetadata("Moved to " + status);
+					// Comment belongs to the start only while the status is still open
+					if (e.row[3] == null) {
+						h.setComment((String) e.row[4]);
+					}
+				}
+				break;
+			}
+			case ENDED: {
+				Status status = (Status) e.row[1];
+				h.setEventType("STATUS_CHANGE");
+				h.setUsername(owner);
+				h.setMetadata(status == Status.IN_PROGRESS ? "Submitted for Review" : "Ended " + status);
+				h.setComment((String) e.row[4]);
+				break;
+			}
+			case WORK_LOG: {
+				long minutes = e.row[3] == null ? 0 : (Long) e.row[3];
+				long hours = minutes / 60;
+				long mins = minutes % 60;
+				h.setEventType("WORK_LOG");
+				h.setUsername(usernames.get((Long) e.row[1]));
+				h.setComment((String) e.row[4]);
+				h.setMetadata("Logged " + (hours > 0 ? hours + "h " : "") + mins + "m");
+				break;
+			}
+			default:
+				h.setEventType("COMPLETED");
+				h.setUsername(assigner);
+				h.setMetadata("Task Completed");
+			}
+			dtos.add(h);
+		}
+		return dtos;
+	}
+}
@@ -0,0 +1,277 @@
+package com.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.dto.TimesheetImportJobDto;
+import com.entity.ImportJobState;
+import com.entity.TimesheetImportJob;
+import com.repo.TimesheetImportJobRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Timesheet uploads run as jobs on a small fixed pool, so the request only
+ * spools the file to disk and returns a job id. Jobs are keyed on the user
+ * and the SHA-256 of the file: uploading the same file again returns the
+ * existing job instead of importing the rows twice, unless that job failed
+ * (a failed import rolled back, so running it again is safe).
+ *
+ * The wait queue is bounded; when it is full the submit fails with
+ * RejectedExecutionException so the caller can answer 503. Progress of a
+ * running job is kept in memory. The job is set DONE, with its counts, in
+ * the transaction that writes the rows, so a job that is not DONE has
+ * imported nothing and can safely be failed and uploaded again.
+ */
+@Service
+public class TimesheetImportJobService {
+
+	private static final int MAX_MESSAGE_LENGTH = 100_000;
+
+	// Live counts of a running job, published after every chunk
+	private static final class Progress {
+		final long startedNanos = System.nanoTime();
+		volatile int total = -1;
+		volatile int done;
+		volatile int failed;
+	}
+
+	@Value("${timesheet.import.pool-size:2}")
+	private int poolSize;
+
+	@Value("${timesheet.import.queue-capacity:20}")
+	private int queueCapacity;
+
+	@Value("${timesheet.import.retry-after-seconds:30}")
+	private int retryAfterSeconds;
+
+	private ThreadPoolExecutor executor;
+
+	private final Map<Long, Progress> running = new ConcurrentHashMap<>();
+
+	private final TimesheetImportJobRepository jobRepo;
+	private final TimesheetService timesheetService;
+	private final TransactionTemplate transactionTemplate;
+
+	public TimesheetImportJobService(TimesheetImportJobRepository jobRepo, TimesheetService timesheetService,
+			TransactionTemplate transactionTemplate) {
+		this.jobRepo = jobRepo;
+		this.timesheetService = timesheetService;
+		this.transactionTemplate = transactionTemplate;
+	}
+
+	@PostConstruct
+	void start() {
+		AtomicInteger seq = new AtomicInteger();
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity),
+				r -> {
+					Thread t = new Thread(r, "timesheet-import-" + seq.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				},
+				new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	@PreDestroy
+	void stop() {
+		executor.shutdownNow();
+	}
+
+	// Queued and running jobs do not survive a restart; their spooled files are gone
+	@EventListener(ApplicationReadyEvent.class)
+	public void failInterrupted() {
+		int interrupted = jobRepo.failUnfinished(LocalDateTime.now());
+		if (interrupted > 0) {
+			System.out.println("Timesheet import jobs interrupted by restart: " + interrupted);
+		}
+	}
+
+	/**
+	 * Accepts an upload as a job, or returns the job of an earlier upload of
+	 * the same file (duplicate = true).
+	 *
+	 * @throws RejectedExecutionException when the pool and its queue are full
+	 */
+	public TimesheetImportJobDto submit(Long userId, MultipartFile upload) throws IOException {
+		Path file = Files.createTempFile("timesheet-job-", ".xlsx");
+		boolean queued = false;
+		try {
+			String hash = spool(upload, file);
+
+			TimesheetImportJob job = jobRepo.findByUserIdAndContentHash(userId, hash).orElse(null);
+			if (job != null) {
+				if (job.getState() != ImportJobState.FAILED
+						|| jobRepo.requeue(job.getId(), upload.getOriginalFilename(), LocalDateTime.now()) == 0) {
+					return toDto(job, true);
+				}
+				job = jobRepo.findById(job.getId()).orElseThrow();
+			} else {
+				job = new TimesheetImportJob();
+				job.setUserId(userId);
+				job.setContentHash(hash);
+				job.setFileName(upload.getOriginalFilename());
+				job.setState(ImportJobState.QUEUED);
+				job.setCreatedAt(LocalDateTime.now());
+				try {
+					job = jobRepo.saveAndFlush(job);
+				} catch (DataIntegrityViolationException e) {
+					// The same file is being uploaded in another request right now
+					return toDto(jobRepo.findByUserIdAndContentHash(userId, hash).orElseThrow(() -> e), true);
+				}
+			}
+
+			Long jobId = job.getId();
+			try {
+				executor.execute(() -> run(jobId, userId, file));
+			} catch (RejectedExecutionException e) {
+				jobRepo.fail(jobId, "The import queue was full; nothing was imported. Upload the file again.",
+						LocalDateTime.now());
+				throw e;
+			}
+			queued = true;
+			return toDto(job, false);
+		} finally {
+			if (!queued) {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+
+	public Optional<TimesheetImportJobDto> find(Long userId, Long jobId) {
+		return jobRepo.findByIdAndUserId(jobId, userId).map(job -> toDto(job, false));
+	}
+
+	public int getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+
+	// Copies the upload to disk and hashes it in the same pass
+	private static String spool(MultipartFile upload, Path file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		try (InputStream in = new DigestInputStream(upload.getInputStream(), digest)) {
+			Files.copy(in, file, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private void run(Long jobId, Long userId, Path file) {
+		Progress progress = new Progress();
+		running.put(jobId, progress);
+		try {
+			update(jobId, job -> {
+				job.setState(ImportJobState.RUNNING);
+				job.setStartedAt(LocalDateTime.now());
+			});
+			transactionTemplate.executeWithoutResult(tx -> {
+				String message;
+				try {
+					message = timesheetService.importFile(file.toFile(), userId, batch -> {
+						progress.total = batch.expected();
+						progress.done = batch.processed();
+						progress.failed = batch.failed();
+					});
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				// Loaded after the import, which clears the persistence context between chunks
+				TimesheetImportJob job = jobRepo.findById(jobId).orElseThrow();
+				job.setState(ImportJobState.DONE);
+				job.setTotalRows(progress.total >= 0 ? progress.total : null);
+				job.setRowsDone(progress.done);
+				job.setRowsFailed(progress.failed);
+				job.setMessage(truncate(message));
+				job.setFinishedAt(LocalDateTime.now());
+				jobRepo.save(job);
+			});
+		} catch (Exception e) {
+			System.err.println("Timesheet import job " + jobId + " failed: " + e.getMessage());
+			fail(jobId, e);
+		} finally {
+			running.remove(jobId);
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				System.err.println("Could not delete " + file + ": " + e.getMessage());
+			}
+		}
+	}
+
+	// Not DONE means the import rolled back; when even this update fails the job stays RUNNING and
+	// failInterrupted fails it on the next start
+	private void fail(Long jobId, Exception cause) {
+		try {
+			if (jobRepo.fail(jobId, truncate("Import failed; nothing was imported: " + cause.getMessage()),
+					LocalDateTime.now()) == 0) {
+				System.err.println("Timesheet import job " + jobId + " committed before the error; left as it is");
+			}
+		} catch (RuntimeException e) {
+			System.err.println("Could not mark timesheet import job " + jobId + " failed: " + e.getMessage());
+		}
+	}
+
+	private void update(Long jobId, Consumer<TimesheetImportJob> change) {
+		jobRepo.findById(jobId).ifPresent(job -> {
+			change.accept(job);
+			jobRepo.save(job);
+		});
+	}
+
+	private static String truncate(String message) {
+		return message != null && message.length() > MAX_MESSAGE_LENGTH
+				? message.substring(0, MAX_MESSAGE_LENGTH - 3) + "..."
+				: message;
+	}
+
+	private TimesheetImportJobDto toDto(TimesheetImportJob job, boolean duplicate) {
+		Integer total = job.getTotalRows();
+		int done = job.getRowsDone();
+		int failed = job.getRowsFailed();
+		Long eta = null;
+
+		Progress progress = running.get(job.getId());
+		if (progress != null && job.getState() != ImportJobState.DONE && job.getState() != ImportJobState.FAILED) {
+			total = progress.total >= 0 ? progress.total : null;
+			done = progress.done;
+			failed = progress.failed;
+			// Rows left at the rate so far
+			long elapsedNanos = System.nanoTime() - progress.startedNanos;
+			if (total != null && done > 0) {
+				eta = Math.max(0, total - done) * elapsedNanos / done / 1_000_000_000L;
+			}
+		}
+		return new TimesheetImportJobDto(job.getId(), job.getState().name(), job.getFileName(), total, done, failed,
+				eta, job.getMessage(), job.getCreatedAt(), job.getStartedAt(), job.getFinishedAt(), duplicate);
+	}
+}
@@ -0,0 +1,247 @@
+package com.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.entity.User;
+import com.entity.WorkLog;
+import com.repo.TaskRepository;
+import com.repo.UserRepository;
+import com.repo.WorkLogRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Writes the rows of a timesheet import in chunks. For each chunk the task
+ * ids not seen yet are checked in one IN query, the rows are validated and
+ * placed in memory, the new WorkLogs go out as one saveAll (batched JDBC
+ * inserts) and the persistence context is flushed and cleared, so a large
+ * import does not pile up managed entities. Worked minutes and the daily
+ * rollup get one aggregated update per task / day when the import finishes.
+ *
+ * Must run inside the caller's transaction.
+ */
+@Service
+public class TimesheetImportPipeline {
+
+	/** One row to import. Work is placed in the first free slot from {@code from} to the end of that day. */
+	public record Entry(int rowNum, Long taskId, double hours, LocalDateTime from, String comment) {
+	}
+
+	private final TaskRepository taskRepository;
+	private final WorkLogRepository workLogRepository;
+	private final UserRepository userRepository;
+	private final TaskEventService eventService;
+	private final WorkLogIntervalIndex intervalIndex;
+	private final WorkLogRollupService rollupService;
+	private final EntityManager entityManager;
+
+	// A multiple of hibernate.jdbc.batch_size
+	@Value("${timesheet.import.chunk-size:500}")
+	private int chunkSize;
+
+	public TimesheetImportPipeline(TaskRepository taskRepository, WorkLogRepository workLogRepository,
+			UserRepository userRepository, TaskEventService eventService, WorkLogIntervalIndex intervalIndex,
+			WorkLogRollupService rollupService, EntityManager entityManager) {
+		this.taskRepository = taskRepository;
+		this.workLogRepository = workLogRepository;
+		this.userRepository = userRepository;
+		this.eventService = eventService;
+		this.intervalIndex = intervalIndex;
+		this.rollupService = rollupService;
+		this.entityManager = entityManager;
+	}
+
+	public Batch open(User user) {
+		return new Batch(user.getId(), user.getUsername());
+	}
+
+	/**
+	 * An import in progress. Rows and row failures are handled in the order
+	 * they are added, so the error report keeps file order.
+	 */
+	public final class Batch {
+		private final Long userId;
+		private final String username;
+
+		// Entry, or String for a row that already failed to parse
+		private final List<Object> chunk = new ArrayList<>();
+		private final Set<Long> ownedTasks = new HashSet<>();
+		private final Set<Long> rejectedTasks = new HashSet<>();
+		private final Set<Long> historyChecked = new HashSet<>();
+		private final Map<Long, Long> workedMinutes = new HashMap<>(); // taskId -> minutes added by this import
+		private final WorkLogRollupService.Delta rollup;
+
+		private Runnable onFlush = () -> {
+		};
+		private int expected = -1;
+		private int processed;
+		private int created;
+		private int invalid;
+		private int noRoom;
+		private int failed;
+		private final StringBuilder errors = new StringBuilder();
+
+		private Batch(Long userId, String username) {
+			this.userId = userId;
+			this.username = username;
+			this.rollup = rollupService.delta(userId);
+		}
+
+		public void add(Entry entry) {
+			chunk.add(entry);
+			if (chunk.size() >= chunkSize) {
+				flush();
+			}
+		}
+
+		/** A row that could not be read; reported as "Row N: message" */
+		public void fail(int rowNum, String message) {
+			chunk.add("Row " + rowNum + ": " + message);
+			if (chunk.size() >= chunkSize) {
+				flush();
+			}
+		}
+
+		/** Writes what is left and the aggregated totals. */
+		public Batch finish() {
+			flush();
+			workedMinutes.forEach(taskRepository::addWorkedMinutes);
+			rollupService.apply(rollup);
+			return this;
+		}
+
+		/** Runs after every chunk is written, e.g. to publish progress. */
+		public void onFlush(Runnable onFlush) {
+			this.onFlush = onFlush;
+		}
+
+		/** Rows the import is expected to have, for progress; -1 when unknown. */
+		public void expect(int rows) {
+			this.expected = rows;
+		}
+
+		public int expected() {
+			return expected;
+		}
+
+		/** Rows handled so far in written chunks, whatever their outcome */
+		public int processed() {
+			return processed;
+		}
+
+		public int created() {
+			return created;
+		}
+
+		/** Rows whose task does not exist or is not the user's */
+		public int invalid() {
+			return invalid;
+		}
+
+		/** Rows with no free slot left on their day */
+		public int noRoom() {
+			return noRoom;
+		}
+
+		/** invalid + noRoom + rows passed to fail() */
+		public int failed() {
+			return failed;
+		}
+
+		public String errors() {
+			return errors.toString();
+		}
+
+		private void flush() {
+			if (chunk.isEmpty()) {
+				return;
+			}
+			prefetch();
+
+			User user = userRepository.getReferenceById(userId);
+			List<WorkLog> logs = new ArrayList<>(chunk.size());
+			for (Object item : chunk) {
+				if (item instanceof String) {
+					failed++;
+					errors.append(item).append(". ");
+					continue;
+				}
+				Entry e = (Entry) item;
+				if (!ownedTasks.contains(e.taskId())) {
+					invalid++;
+					failed++;
+					errors.append("Row ").append(e.rowNum()).append(": Invalid Task ID or not assigned to you. ");
+					continue;
+				}
+				if (e.hours() <= 0) {
+					continue; // Skip if no work logged
+				}
+
+				// First free slot of the day, so rows of one import do not overlap each other or earlier logs
+				long minutes = (long) (e.hours() * 60);
+				LocalDateTime start = intervalIndex.place(userId, e.from(), minutes,
+						e.from().toLocalDate().plusDays(1).atStartOfDay());
+				if (start == null) {
+					noRoom++;
+					failed++;
+					errors.append("Row ").append(e.rowNum()).append(": Not enough free time left on ")
+							.append(e.from().toLocalDate()).append(". ");
+					continue;
+				}
+
+				// Before the task's first new log, so a reconstructed history does not include it
+				if (historyChecked.add(e.taskId())) {
+					eventService.ensureHistory(e.taskId());
+				}
+				WorkLog log = new WorkLog();
+				log.setTask(taskRepository.getReferenceById(e.taskId()));
+				log.setUser(user);
+				log.setStartTime(start);
+				log.setEndTime(start.plusMinutes(minutes));
+				log.setDurationMinutes(minutes);
+				log.setComment(e.comment());
+				logs.add(log);
+
+				eventService.workLogged(e.taskId(), userId, username, start, minutes, e.comment());
+				workedMinutes.merge(e.taskId(), minutes, Long::sum);
+				rollup.add(e.taskId(), start, minutes);
+				created++;
+			}
+			processed += chunk.size();
+			chunk.clear();
+
+			workLogRepository.saveAll(logs);
+			entityManager.flush();
+			entityManager.clear();
+			onFlush.run();
+		}
+
+		// Ownership of every task id new to this import, in one query
+		private void prefetch() {
+			Set<Long> unknown = new HashSet<>();
+			for (Object item : chunk) {
+				if (item instanceof Entry e && e.taskId() != null && !ownedTasks.contains(e.taskId())
+						&& !rejectedTasks.contains(e.taskId())) {
+					unknown.add(e.taskId());
+				}
+			}
+			if (unknown.isEmpty()) {
+				return;
+			}
+			for (Long id : taskRepository.findIdsOwnedBy(userId, unknown)) {
+				ownedTasks.add(id);
+				unknown.remove(id);
+			}
+			rejectedTasks.addAll(unknown);
+		}
+	}
+}
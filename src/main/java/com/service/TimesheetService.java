@@ -1,21 +1,26 @@
 package com.service;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -24,18 +29,21 @@ import com.dto.WeeklyLogResponse;
 import com.entity.Status;
 import com.entity.Task;
 import com.entity.User;
-import com.entity.WorkLog;
 import com.repo.TaskRepository;
 import com.repo.UserRepository;
 import com.repo.WorkLogRepository;
+import com.util.XlsxRowReader;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 public class TimesheetService {
 
+    // Longest period getLogRange builds in one call
+    private static final int MAX_RANGE_DAYS = 62;
+
     @Autowired
     private TaskRepository taskRepository;
 
@@ -45,8 +53,58 @@ public class TimesheetService {
     @Autowired
     private UserRepository userRepository;
 
-    public ByteArrayInputStream generateTemplate(Long userId) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    @Autowired
+    private TimesheetImportPipeline importPipeline;
+
+    @Autowired
+    private TimesheetTemplateCache templateCache;
+
+    // false: load uploads as a whole workbook instead of streaming the sheet
+    @Value("${timesheet.import.streaming:true}")
+    private boolean streamingImport;
+
+    public TimesheetTemplateCache.Key templateKey(Long userId) {
+        return templateCache.key(userId);
+    }
+
+    /**
+     * Writes the upload template for the key's user and day: their open tasks,
+     * dated that day. Built with the streaming SXSSF writer and fixed column
+     * widths, straight into out; the bytes are kept so repeat downloads for
+     * the same key are copied from memory.
+     */
+    public void writeTemplate(TimesheetTemplateCache.Key key, OutputStream out) throws IOException {
+        byte[] cached = templateCache.get(key);
+        if (cached != null) {
+            out.write(cached);
+            return;
+        }
+        ByteArrayOutputStream copy = new ByteArrayOutputStream(16 * 1024);
+        OutputStream both = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                copy.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                copy.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                out.flush();
+            }
+        };
+        buildTemplate(key.userId(), key.date(), both);
+        templateCache.put(key, copy.toByteArray());
+    }
+
+    private void buildTemplate(Long userId, LocalDate date, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        try {
             Sheet sheet = workbook.createSheet("Timesheet");
 
             // Header
@@ -60,225 +118,248 @@ public class TimesheetService {
             // Populate with User's Tasks (Active only)
             List<Task> tasks = taskRepository.fetchTasks(userId);
             int rowIdx = 1;
+            int titleChars = headers[1].length();
             for (Task task : tasks) {
                 if (task.getStatus() != Status.COMPLETED) { // Only show active tasks
                     Row row = sheet.createRow(rowIdx++);
                     row.createCell(0).setCellValue(task.getId());
                     row.createCell(1).setCellValue(task.getTitle());
                     row.createCell(2).setCellValue(task.getStatus().toString());
-                    row.createCell(3).setCellValue(LocalDate.now().toString()); // Default to today
+                    row.createCell(3).setCellValue(date.toString()); // Default to today
                     row.createCell(4).setCellValue(0); // Default 0 hours
                     row.createCell(5).setCellValue("");
+                    if (task.getTitle() != null)
+                        titleChars = Math.max(titleChars, task.getTitle().length());
                 }
             }
 
-            // Auto size columns
-            for (int i = 0; i < headers.length; i++)
-                sheet.autoSizeColumn(i);
+            // Widths in characters instead of autoSizeColumn, which measures every cell with font metrics
+            int[] widths = { 10, Math.min(titleChars, 60) + 2, 14, 19, 14, 40 };
+            for (int i = 0; i < widths.length; i++)
+                sheet.setColumnWidth(i, widths[i] * 256);
 
             workbook.write(out);
-            return new ByteArrayInputStream(out.toByteArray());
+        } finally {
+            workbook.dispose();
+            workbook.close();
         }
     }
 
-    @Transactional
+    /**
+     * Imports the rows of an uploaded timesheet. The upload is spooled to a
+     * temp file first; see {@link #importFile}.
+     */
+    @Transactional(rollbackFor = IOException.class)
     public String processTimesheet(MultipartFile file, Long userId) throws IOException {
-        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-        int logsCreated = 0;
-        int failedRows = 0;
-        StringBuilder errors = new StringBuilder();
-
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            Iterator<Row> rows = sheet.iterator();
-
-            // Skip header
-            if (rows.hasNext())
-                rows.next();
-
-            int rowNum = 1;
-            while (rows.hasNext()) {
-                Row row = rows.next();
-                rowNum++;
-
-                // Skip empty rows
-                if (row.getCell(0) == null)
-                    continue;
-
-                try {
-                    // 1. Task ID
-                    Long taskId = (long) row.getCell(0).getNumericCellValue();
-
-                    // 2. Validate Task
-                    Task task = taskRepository.findById(taskId).orElse(null);
-                    if (task == null || !task.getUser().getId().equals(userId)) {
-                        failedRows++;
-                        errors.append("Row ").append(rowNum).append(": Invalid Task ID or not assigned to you. ");
-                        continue;
-                    }
+        File tmp = File.createTempFile("timesheet-", ".xlsx");
+        try {
+            file.transferTo(tmp);
+            return importFile(tmp, userId, batch -> {
+            });
+        } finally {
+            if (!tmp.delete())
+                tmp.deleteOnExit();
+        }
+    }
 
-                    // 3. Hours
-                    double hours = 0;
-                    Cell hoursCell = row.getCell(4);
-                    if (hoursCell != null && hoursCell.getCellType() == CellType.NUMERIC) {
-                        hours = hoursCell.getNumericCellValue();
-                    }
+    /**
+     * Imports the rows of a timesheet file. In streaming mode the sheet is
+     * parsed row by row with SAX, so the accepted size is bounded by disk
+     * rather than heap; otherwise the whole workbook is loaded. Both report
+     * the same per-row errors. Rows are written in chunks by
+     * {@link TimesheetImportPipeline}; progress gets the batch after each one.
+     * A file that turns out unreadable part way rolls back the rows before it.
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public String importFile(File file, Long userId, Consumer<TimesheetImportPipeline.Batch> progress)
+            throws IOException {
+        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+        TimesheetImportPipeline.Batch batch = importPipeline.open(user);
+        batch.onFlush(() -> progress.accept(batch));
+        RowImport rows = new RowImport(batch);
+
+        if (streamingImport) {
+            XlsxRowReader.read(file, rows);
+        } else {
+            try (InputStream in = new FileInputStream(file); Workbook workbook = new XSSFWorkbook(in)) {
+                XlsxRowReader.read(workbook.getSheetAt(0), rows);
+            }
+        }
+        batch.finish();
 
-                    if (hours <= 0)
-                        continue; // Skip if no work logged
-
-                    // 4. Date
-                    LocalDate date = LocalDate.now(); // Default
-                    Cell dateCell = row.getCell(3);
-                    try {
-                        if (dateCell != null) {
-                            if (dateCell.getCellType() == CellType.STRING) {
-                                date = LocalDate.parse(dateCell.getStringCellValue());
-                            } else if (dateCell.getCellType() == CellType.NUMERIC) {
-                                date = dateCell.getLocalDateTimeCellValue().toLocalDate();
-                            }
-                        }
-                    } catch (Exception e) {
-                        // ignore date parse error, use today
-                    }
+        return "Processed: " + batch.created() + " entries created. "
+                + (batch.failed() > 0 ? "Failed: " + batch.failed() + ". Errors: " + batch.errors() : "");
+    }
 
-                    // 5. Comment
-                    String comment = "";
-                    Cell commentCell = row.getCell(5);
-                    if (commentCell != null) {
-                        if (commentCell.getCellType() == CellType.STRING)
-                            comment = commentCell.getStringCellValue();
-                        else if (commentCell.getCellType() == CellType.NUMERIC)
-                            comment = String.valueOf(commentCell.getNumericCellValue());
-                    }
+    // Turns each sheet row into a pipeline entry as it is read
+    private static class RowImport implements XlsxRowReader.RowHandler {
+        private final TimesheetImportPipeline.Batch batch;
 
-                    // Create Log
-                    WorkLog log = new WorkLog();
-                    log.setTask(task);
-                    log.setUser(user);
-                    log.setStartTime(date.atStartOfDay()); // Just set to start of day
-                    log.setEndTime(date.atStartOfDay().plusMinutes((long) (hours * 60)));
-                    log.setDurationMinutes((long) (hours * 60));
-                    log.setComment("[Bulk Upload] " + comment);
+        RowImport(TimesheetImportPipeline.Batch batch) {
+            this.batch = batch;
+        }
 
-                    workLogRepository.save(log);
+        @Override
+        public void size(int rows) {
+            batch.expect(Math.max(0, rows - 1)); // without the header
+        }
 
-                    // Update Task Total
-                    task.setTotalWorkedMinutes((task.getTotalWorkedMinutes() == null ? 0 : task.getTotalWorkedMinutes())
-                            + log.getDurationMinutes());
-                    taskRepository.save(task);
+        @Override
+        public void row(int position, XlsxRowReader.Cell[] row) {
+            // Skip header
+            if (position == 0)
+                return;
+            int rowNum = position + 1;
+
+            // Skip empty rows
+            if (cell(row, 0) == null)
+                return;
+
+            // 1. Task ID
+            Long taskId;
+            try {
+                taskId = (long) cell(row, 0).numeric();
+            } catch (Exception e) {
+                batch.fail(rowNum, "Error processing");
+                return;
+            }
 
-                    logsCreated++;
+            // 2. Hours
+            double hours = 0;
+            XlsxRowReader.Cell hoursCell = cell(row, 4);
+            if (hoursCell != null && hoursCell.kind() == XlsxRowReader.Kind.NUMERIC) {
+                hours = hoursCell.number();
+            }
 
-                } catch (Exception e) {
-                    failedRows++;
-                    errors.append("Row ").append(rowNum).append(": Error processing. ");
+            // 3. Date
+            LocalDate date = LocalDate.now(); // Default
+            XlsxRowReader.Cell dateCell = cell(row, 3);
+            try {
+                if (dateCell != null) {
+                    if (dateCell.kind() == XlsxRowReader.Kind.STRING) {
+                        date = LocalDate.parse(dateCell.text());
+                    } else if (dateCell.kind() == XlsxRowReader.Kind.NUMERIC) {
+                        date = DateUtil.getLocalDateTime(dateCell.number()).toLocalDate();
+                    }
                 }
+            } catch (Exception e) {
+                // ignore date parse error, use today
             }
+
+            // 4. Comment
+            String comment = "";
+            XlsxRowReader.Cell commentCell = cell(row, 5);
+            if (commentCell != null) {
+                if (commentCell.kind() == XlsxRowReader.Kind.STRING)
+                    comment = commentCell.text();
+                else if (commentCell.kind() == XlsxRowReader.Kind.NUMERIC)
+                    comment = String.valueOf(commentCell.number());
+            }
+
+            // Task ownership and hours <= 0 are checked by the pipeline, in that order
+            batch.add(new TimesheetImportPipeline.Entry(rowNum, taskId, hours, date.atStartOfDay(),
+                    "[Bulk Upload] " + comment));
         }
 
-        return "Processed: " + logsCreated + " entries created. "
-                + (failedRows > 0 ? "Failed: " + failedRows + ". Errors: " + errors.toString() : "");
+        private static XlsxRowReader.Cell cell(XlsxRowReader.Cell[] row, int column) {
+            return column < row.length ? row[column] : null;
+        }
     }
 
     @Transactional
     public String saveWeeklyLogs(com.dto.WeeklyLogRequest request, Long userId) {
         User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-        int logsSaved = 0;
+        TimesheetImportPipeline.Batch batch = importPipeline.open(user);
 
+        int row = 0;
         for (com.dto.WeeklyLogRequest.TaskLogDto taskLog : request.getTaskLogs()) {
-            Task task = taskRepository.findById(taskLog.getTaskId()).orElse(null);
-            if (task == null || !task.getUser().getId().equals(userId)) {
-                continue; // Skip invalid tasks
-            }
-
             for (com.dto.WeeklyLogRequest.DailyEntryDto entry : taskLog.getEntries()) {
                 if (entry.getHours() != null && entry.getHours() > 0) {
-                    WorkLog log = new WorkLog();
-                    log.setTask(task);
-                    log.setUser(user);
-                    log.setStartTime(entry.getDate().atStartOfDay().plusHours(9)); // Assume 9 AM start
-                    long minutes = (long) (entry.getHours() * 60);
-                    log.setEndTime(log.getStartTime().plusMinutes(minutes));
-                    log.setDurationMinutes(minutes);
-
                     String comment = entry.getComment();
                     if (comment == null || comment.isEmpty()) {
                         comment = "Timesheet Log";
                     }
-                    log.setComment(comment);
-
-                    workLogRepository.save(log);
-
-                    // Update Task Total
-                    task.setTotalWorkedMinutes((task.getTotalWorkedMinutes() == null ? 0 : task.getTotalWorkedMinutes())
-                            + minutes);
-                    taskRepository.save(task);
-                    logsSaved++;
+                    // From 9 AM, first slot that does not overlap logged time
+                    batch.add(new TimesheetImportPipeline.Entry(++row, taskLog.getTaskId(), entry.getHours(),
+                            entry.getDate().atStartOfDay().plusHours(9), comment));
                 }
             }
         }
-        return "Successfully saved " + logsSaved + " entries.";
+        batch.finish();
+        // Entries of invalid tasks are skipped silently
+        return "Successfully saved " + batch.created() + " entries."
+                + (batch.noRoom() > 0 ? " Skipped " + batch.noRoom() + " entries: not enough free time left that day."
+                        : "");
     }
 
     public WeeklyLogResponse getWeeklyLogs(Long userId, LocalDate weekStartDate) {
-        // 1. Fetch all tasks for the user
-        List<Task> allTasks = taskRepository.fetchTasks(userId);
+        return new WeeklyLogResponse(weekStartDate, buildGrid(userId, weekStartDate, 7));
+    }
 
-        // 2. Fetch all logs for the week
-        LocalDateTime startOfWeek = weekStartDate.atStartOfDay();
-        LocalDateTime endOfWeek = weekStartDate.plusDays(7).atStartOfDay();
-        List<WorkLog> weeklyLogs = workLogRepository.findByUserIdAndStartTimeBetween(userId, startOfWeek, endOfWeek);
+    /**
+     * The weekly grid stretched over [fromDate, toDate]: one entry per day for
+     * every task, e.g. a whole month in one call.
+     */
+    public WeeklyLogResponse getLogRange(Long userId, LocalDate fromDate, LocalDate toDate) {
+        long days = java.time.temporal.ChronoUnit.DAYS.between(fromDate, toDate) + 1;
+        if (days < 1 || days > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Range must be 1 to " + MAX_RANGE_DAYS + " days");
+        }
+        return new WeeklyLogResponse(fromDate, buildGrid(userId, fromDate, (int) days));
+    }
 
-        // 3. Group logs by Task ID
-        Map<Long, List<WorkLog>> logsByTask = weeklyLogs.stream()
-                .collect(Collectors.groupingBy(log -> log.getTask().getId()));
+    // Minutes and comments of one task, one slot per day
+    private static final class Bucket {
+        final long[] minutes;
+        final StringBuilder[] comments;
 
-        List<WeeklyLogResponse.TaskLogResponseDto> taskLogDtos = new ArrayList<>();
+        Bucket(int days) {
+            minutes = new long[days];
+            comments = new StringBuilder[days];
+        }
+    }
 
-        // 4. Iterate over tasks
-        for (Task task : allTasks) {
-            // Include task if it's not COMPLETED OR if it has logs this week
-            boolean hasLogs = logsByTask.containsKey(task.getId());
-            if (task.getStatus() == Status.COMPLETED && !hasLogs) {
-                continue; // Skip completed tasks with no activity this week
+    // Open tasks plus completed tasks with logs in the range; every log is visited once
+    private List<WeeklyLogResponse.TaskLogResponseDto> buildGrid(Long userId, LocalDate firstDay, int days) {
+        LocalDateTime from = firstDay.atStartOfDay();
+        LocalDateTime to = firstDay.plusDays(days).atStartOfDay();
+
+        Map<Long, Bucket> buckets = new HashMap<>();
+        for (Object[] r : workLogRepository.findGridRows(userId, from, to)) {
+            Bucket b = buckets.computeIfAbsent((Long) r[0], id -> new Bucket(days));
+            int day = (int) java.time.temporal.ChronoUnit.DAYS.between(firstDay, ((LocalDateTime) r[1]).toLocalDate());
+            b.minutes[day] += r[2] == null ? 0 : (Long) r[2];
+            String comment = (String) r[3];
+            if (comment != null && !comment.isEmpty()) {
+                if (b.comments[day] == null) {
+                    b.comments[day] = new StringBuilder(comment);
+                } else {
+                    b.comments[day].append("; ").append(comment);
+                }
             }
+        }
 
+        List<WeeklyLogResponse.TaskLogResponseDto> taskLogDtos = new ArrayList<>();
+        for (Object[] t : taskRepository.findGridTasks(userId, from, to)) {
             WeeklyLogResponse.TaskLogResponseDto taskDto = new WeeklyLogResponse.TaskLogResponseDto();
-            taskDto.setTaskId(task.getId());
-            taskDto.setTaskTitle(task.getTitle());
-            taskDto.setStatus(task.getStatus().toString());
+            taskDto.setTaskId((Long) t[0]);
+            taskDto.setTaskTitle((String) t[1]);
+            taskDto.setStatus(String.valueOf(t[2]));
 
-            List<WeeklyLogResponse.DailyEntryResponseDto> entries = new ArrayList<>();
-            List<WorkLog> taskLogs = logsByTask.getOrDefault(task.getId(), new ArrayList<>());
-
-            // 5. Create entry for each day of the week
-            for (int i = 0; i < 7; i++) {
-                LocalDate date = weekStartDate.plusDays(i);
+            Bucket b = buckets.get(taskDto.getTaskId());
+            List<WeeklyLogResponse.DailyEntryResponseDto> entries = new ArrayList<>(days);
+            for (int i = 0; i < days; i++) {
                 WeeklyLogResponse.DailyEntryResponseDto entry = new WeeklyLogResponse.DailyEntryResponseDto();
-                entry.setDate(date);
-
-                // Sum hours for this day
-                double hours = taskLogs.stream()
-                        .filter(l -> l.getStartTime().toLocalDate().equals(date))
-                        .mapToLong(WorkLog::getDurationMinutes)
-                        .sum() / 60.0;
-
-                // Collect comments (if multiple, join them)
-                String comment = taskLogs.stream()
-                        .filter(l -> l.getStartTime().toLocalDate().equals(date))
-                        .map(WorkLog::getComment)
-                        .filter(c -> c != null && !c.isEmpty())
-                        .collect(Collectors.joining("; "));
-
-                entry.setHours(hours > 0 ? hours : null);
-                entry.setComment(comment.isEmpty() ? null : comment);
+                entry.setDate(firstDay.plusDays(i));
+                if (b != null) {
+                    entry.setHours(b.minutes[i] > 0 ? b.minutes[i] / 60.0 : null);
+                    entry.setComment(b.comments[i] != null ? b.comments[i].toString() : null);
+                }
                 entries.add(entry);
             }
             taskDto.setEntries(entries);
             taskLogDtos.add(taskDto);
         }
-
-        return new WeeklyLogResponse(weekStartDate, taskLogDtos);
+        return taskLogDtos;
     }
 }
@@ -0,0 +1,121 @@
+package com.service;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.entity.TaskEvent;
+import com.entity.TaskEventType;
+import com.util.TransactionHooks;
+
+/**
+ * Generated timesheet templates, one per user, valid for one (day, task-set
+ * version). A user's version goes up after commit of any task event that can
+ * change their template: a task created for them, moved to or from them or
+ * to another status, or edited. The template of the day before is dropped
+ * on the first download of a new day.
+ */
+@Service
+public class TimesheetTemplateCache implements TaskEventListener {
+
+	// Versions restart at 0 with the process, so ETags carry the start time too
+	private static final String BOOT = Long.toString(System.currentTimeMillis(), 36);
+
+	/** What a template was generated for. */
+	public record Key(Long userId, LocalDate date, long version) {
+
+		public String etag() {
+			return "\"" + BOOT + "-" + userId + "-" + date + "-" + version + "\"";
+		}
+	}
+
+	private record Entry(Key key, byte[] bytes) {
+	}
+
+	private static final Object BUMPS_KEY = new Object();
+
+	// Users whose templates one transaction changed, bumped once after commit
+	private static final class Bumps {
+		final Set<Long> users = new HashSet<>();
+		final Set<Long> editedTasks = new HashSet<>();
+
+		void add(TaskEvent event) {
+			if (event.getType() == TaskEventType.EDITED) {
+				editedTasks.add(event.getTaskId());
+			} else {
+				users.add(event.getFromUserId());
+				users.add(event.getToUserId());
+			}
+		}
+	}
+
+	private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+	private final Map<Long, Entry> templates = new ConcurrentHashMap<>();
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public TimesheetTemplateCache(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/** The current key for the user's template; read it before building one. */
+	public Key key(Long userId) {
+		return new Key(userId, LocalDate.now(), version(userId).get());
+	}
+
+	/** Cached template for exactly this key, or null. */
+	public byte[] get(Key key) {
+		Entry entry = templates.get(key.userId());
+		return entry != null && entry.key().equals(key) ? entry.bytes() : null;
+	}
+
+	/** Keeps a template built for key, unless the user's tasks changed meanwhile. */
+	public void put(Key key, byte[] bytes) {
+		if (key.version() == version(key.userId()).get()) {
+			templates.put(key.userId(), new Entry(key, bytes));
+		}
+	}
+
+	@Override
+	public void onTaskEvent(TaskEvent event) {
+		switch (event.getType()) {
+		case CREATED:
+		case STATUS_CHANGE:
+		case REASSIGN:
+		case COMPLETED:
+		case EDITED:
+			TransactionHooks.collect(BUMPS_KEY, Bumps::new, bumps -> bumps.add(event), this::bumpAll);
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void bumpAll(Bumps bumps) {
+		if (!bumps.editedTasks.isEmpty()) {
+			// Edit events do not name the owner
+			String in = String.join(",", Collections.nCopies(bumps.editedTasks.size(), "?"));
+			bumps.users.addAll(jdbcTemplate.queryForList("SELECT user_id FROM task WHERE id IN (" + in + ")",
+					Long.class, bumps.editedTasks.toArray()));
+		}
+		bumps.users.forEach(this::bump);
+	}
+
+	private void bump(Long userId) {
+		if (userId != null) {
+			version(userId).incrementAndGet();
+			templates.remove(userId);
+		}
+	}
+
+	private AtomicLong version(Long userId) {
+		return versions.computeIfAbsent(userId, k -> new AtomicLong());
+	}
+}
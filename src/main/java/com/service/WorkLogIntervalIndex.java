@@ -0,0 +1,168 @@
+package com.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.repo.WorkLogRepository;
+
+/**
+ * Logged time per user as a sorted map of disjoint [start, end) intervals,
+ * keyed by start. An overlap check looks at the interval starting at or
+ * before the new start and the next one after it, so it is O(log n) and does
+ * not care about calendar days: a log running past midnight is found from
+ * the next day too.
+ *
+ * A user's intervals are loaded from work_logs on first use. Logs that
+ * already overlap in the table are merged into one busy interval. Intervals
+ * added in a transaction are visible to other writers right away, and they
+ * are taken out again if that transaction rolls back.
+ */
+@Service
+public class WorkLogIntervalIndex {
+
+	private static final Object ADDED_KEY = new Object();
+
+	private static final class Busy {
+		final TreeMap<LocalDateTime, LocalDateTime> intervals = new TreeMap<>();
+	}
+
+	private record Added(Long userId, LocalDateTime start, LocalDateTime end) {
+	}
+
+	private final Map<Long, Busy> users = new ConcurrentHashMap<>();
+
+	private final WorkLogRepository workLogRepo;
+
+	public WorkLogIntervalIndex(WorkLogRepository workLogRepo) {
+		this.workLogRepo = workLogRepo;
+	}
+
+	/**
+	 * Records [start, end) for the user unless it overlaps logged time.
+	 *
+	 * @return the overlapping interval, or null when the interval was recorded
+	 */
+	public Map.Entry<LocalDateTime, LocalDateTime> tryAdd(Long userId, LocalDateTime start, LocalDateTime end) {
+		Busy busy = busy(userId);
+		synchronized (busy) {
+			Map.Entry<LocalDateTime, LocalDateTime> overlap = overlap(busy, start, end);
+			if (overlap == null) {
+				add(userId, busy, start, end);
+			}
+			return overlap;
+		}
+	}
+
+	/**
+	 * First fit: records the earliest free interval of the given length that
+	 * starts at or after {@code from} and ends by {@code latestEnd}.
+	 *
+	 * @return the start of the recorded interval, or null when there is no room
+	 */
+	public LocalDateTime place(Long userId, LocalDateTime from, long minutes, LocalDateTime latestEnd) {
+		Busy busy = busy(userId);
+		synchronized (busy) {
+			LocalDateTime start = from;
+			while (!start.plusMinutes(minutes).isAfter(latestEnd)) {
+				LocalDateTime end = start.plusMinutes(minutes);
+				Map.Entry<LocalDateTime, LocalDateTime> overlap = overlap(busy, start, end);
+				if (overlap == null) {
+					add(userId, busy, start, end);
+					return start;
+				}
+				start = overlap.getValue();
+			}
+			return null;
+		}
+	}
+
+	private Map.Entry<LocalDateTime, LocalDateTime> overlap(Busy busy, LocalDateTime start, LocalDateTime end) {
+		if (!end.isAfter(start)) {
+			return null; // empty interval takes no time
+		}
+		Map.Entry<LocalDateTime, LocalDateTime> before = busy.intervals.floorEntry(start);
+		if (before != null && before.getValue().isAfter(start)) {
+			return before;
+		}
+		Map.Entry<LocalDateTime, LocalDateTime> after = busy.intervals.higherEntry(start);
+		if (after != null && after.getKey().isBefore(end)) {
+			return after;
+		}
+		return null;
+	}
+
+	private void add(Long userId, Busy busy, LocalDateTime start, LocalDateTime end) {
+		if (!end.isAfter(start)) {
+			return;
+		}
+		busy.intervals.put(start, end);
+		removeOnRollback(new Added(userId, start, end));
+	}
+
+	private Busy busy(Long userId) {
+		Busy busy = users.get(userId);
+		if (busy != null) {
+			return busy;
+		}
+		Busy loaded = new Busy();
+		Map.Entry<LocalDateTime, LocalDateTime> last = null;
+		for (Object[] r : workLogRepo.findIntervalsByUserId(userId)) {
+			LocalDateTime start = (LocalDateTime) r[0];
+			LocalDateTime end = (LocalDateTime) r[1];
+			if (!end.isAfter(start)) {
+				continue;
+			}
+			if (last != null && start.isBefore(last.getValue())) {
+				if (end.isAfter(last.getValue())) {
+					loaded.intervals.put(last.getKey(), end);
+					last = loaded.intervals.floorEntry(last.getKey());
+				}
+				continue;
+			}
+			loaded.intervals.put(start, end);
+			last = Map.entry(start, end);
+		}
+		Busy existing = users.putIfAbsent(userId, loaded);
+		return existing != null ? existing : loaded;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void removeOnRollback(Added added) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		List<Added> list = (List<Added>) TransactionSynchronizationManager.getResource(ADDED_KEY);
+		if (list == null) {
+			List<Added> tx = new ArrayList<>();
+			list = tx;
+			TransactionSynchronizationManager.bindResource(ADDED_KEY, tx);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(ADDED_KEY);
+					if (status != STATUS_COMMITTED) {
+						tx.forEach(WorkLogIntervalIndex.this::remove);
+					}
+				}
+			});
+		}
+		list.add(added);
+	}
+
+	private void remove(Added added) {
+		Busy busy = users.get(added.userId());
+		if (busy != null) {
+			synchronized (busy) {
+				busy.intervals.remove(added.start(), added.end());
+			}
+		}
+	}
+}
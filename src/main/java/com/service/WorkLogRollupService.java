@@ -0,0 +1,200 @@
+package com.service;
+
+import java.sql.BatchUpdateException;
+import java.sql.Date;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dto.WorkSummaryDto;
+import com.entity.WorkLogDaily;
+import com.repo.WorkLogDailyRepository;
+
+/**
+ * Maintains work_log_daily, the logged minutes and log count per (user, task,
+ * day), in the same transaction as every work log insert. Hour totals by day,
+ * week, month or task are read from these rows instead of grouping raw
+ * work_logs. A log counts towards the day it starts on.
+ */
+@Service
+@Transactional
+public class WorkLogRollupService {
+
+	public enum GroupBy {
+		DAY, WEEK, MONTH, TASK
+	}
+
+	// Atomic add-or-create; ids come from the same pooled sequence the entity uses
+	private static final String UPSERT_SQL = """
+			MERGE INTO work_log_daily d
+			USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS DATE), CAST(? AS BIGINT), CAST(? AS BIGINT)))
+			    s(user_id, task_id, log_date, minutes, logs)
+			ON d.user_id = s.user_id AND d.task_id = s.task_id AND d.log_date = s.log_date
+			WHEN MATCHED THEN UPDATE SET total_minutes = d.total_minutes + s.minutes, log_count = d.log_count + s.logs
+			WHEN NOT MATCHED THEN INSERT (id, user_id, task_id, log_date, total_minutes, log_count)
+			    VALUES (NEXT VALUE FOR work_log_daily_seq, s.user_id, s.task_id, s.log_date, s.minutes, s.logs)
+			""";
+
+	private static final String REBUILD_SQL = """
+			INSERT INTO work_log_daily (id, user_id, task_id, log_date, total_minutes, log_count)
+			SELECT NEXT VALUE FOR work_log_daily_seq, g.user_id, g.task_id, g.log_date, g.minutes, g.logs
+			FROM (SELECT user_id, task_id, CAST(start_time AS DATE) AS log_date,
+			             SUM(COALESCE(duration_minutes, 0)) AS minutes, COUNT(*) AS logs
+			      FROM work_logs
+			      WHERE user_id IS NOT NULL AND task_id IS NOT NULL AND start_time IS NOT NULL
+			      GROUP BY user_id, task_id, CAST(start_time AS DATE)) g
+			""";
+
+	/** Changes of one bulk write, applied together by {@link WorkLogRollupService#apply}. */
+	public static final class Delta {
+		private final Long userId;
+		// (taskId, date) -> [minutes, logs]
+		private final Map<List<Object>, long[]> rows = new LinkedHashMap<>();
+
+		private Delta(Long userId) {
+			this.userId = userId;
+		}
+
+		public void add(Long taskId, LocalDateTime start, long minutes) {
+			long[] row = rows.computeIfAbsent(List.of(taskId, start.toLocalDate()), k -> new long[2]);
+			row[0] += minutes;
+			row[1]++;
+		}
+	}
+
+	private final JdbcTemplate jdbcTemplate;
+	private final WorkLogDailyRepository dailyRepo;
+
+	public WorkLogRollupService(JdbcTemplate jdbcTemplate, WorkLogDailyRepository dailyRepo) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.dailyRepo = dailyRepo;
+	}
+
+	// First start after the table was introduced: build it from the existing logs
+	@EventListener(ApplicationReadyEvent.class)
+	public void initialize() {
+		if (dailyRepo.count() == 0) {
+			Long logs = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM work_logs", Long.class);
+			if (logs != null && logs > 0) {
+				System.out.println("work_log_daily built from work_logs: " + rebuild() + " rows");
+			}
+		}
+	}
+
+	/** One new log. */
+	public void record(Long userId, Long taskId, LocalDateTime start, long minutes) {
+		upsert(userId, taskId, start.toLocalDate(), minutes, 1);
+	}
+
+	public Delta delta(Long userId) {
+		return new Delta(userId);
+	}
+
+	/** All rows of a bulk write, one statement batch. */
+	public void apply(Delta delta) {
+		if (delta.rows.isEmpty()) {
+			return;
+		}
+		List<Object[]> args = new ArrayList<>(delta.rows.size());
+		delta.rows.forEach((key, v) -> args.add(
+				new Object[] { delta.userId, key.get(0), Date.valueOf((LocalDate) key.get(1)), v[0], v[1] }));
+		try {
+			jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+		} catch (DuplicateKeyException e) {
+			// Another writer created one of the rows at the same time. The statements that went
+			// through have added their minutes already, so only the failed ones are retried.
+			int[] counts = updateCounts(e);
+			if (counts == null) {
+				throw e;
+			}
+			for (int i = 0; i < args.size(); i++) {
+				if (i >= counts.length || counts[i] == Statement.EXECUTE_FAILED) {
+					Object[] a = args.get(i);
+					upsert((Long) a[0], (Long) a[1], ((Date) a[2]).toLocalDate(), (Long) a[3], (Long) a[4]);
+				}
+			}
+		}
+	}
+
+	// Per-statement results of a failed batch; shorter than the batch when the driver stopped at the failure
+	private static int[] updateCounts(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if (t instanceof BatchUpdateException b) {
+				return b.getUpdateCounts();
+			}
+		}
+		return null;
+	}
+
+	private void upsert(Long userId, Long taskId, LocalDate date, long minutes, long logs) {
+		Object[] args = { userId, taskId, Date.valueOf(date), minutes, logs };
+		try {
+			jdbcTemplate.update(UPSERT_SQL, args);
+		} catch (DuplicateKeyException e) {
+			// Lost the race to insert the row; it exists now, so this adds to it
+			jdbcTemplate.update(UPSERT_SQL, args);
+		}
+	}
+
+	/** Regenerates every rollup row from work_logs. Returns the number of rows written. */
+	public int rebuild() {
+		jdbcTemplate.update("DELETE FROM work_log_daily");
+		return jdbcTemplate.update(REBUILD_SQL);
+	}
+
+	/**
+	 * Totals of a user's logs starting in [fromDate, toDate], grouped by day,
+	 * week (key: the Monday), month (key: yyyy-MM) or task, in key order.
+	 */
+	@Transactional(readOnly = true)
+	public List<WorkSummaryDto> summary(Long userId, LocalDate fromDate, LocalDate toDate, GroupBy groupBy) {
+		Map<String, WorkSummaryDto> groups = new LinkedHashMap<>();
+		if (groupBy == GroupBy.TASK && fromDate == null && toDate == null) {
+			for (Object[] r : dailyRepo.sumByTaskForUser(userId)) {
+				groups.put(String.valueOf(r[0]),
+						new WorkSummaryDto(String.valueOf(r[0]), ((Number) r[1]).longValue(), ((Number) r[2]).longValue()));
+			}
+			return new ArrayList<>(groups.values());
+		}
+
+		LocalDate from = fromDate != null ? fromDate : LocalDate.of(1970, 1, 1);
+		LocalDate to = toDate != null ? toDate : LocalDate.of(9999, 12, 31);
+		List<WorkLogDaily> rows = dailyRepo.findByUserIdAndLogDateBetween(userId, from, to);
+		if (groupBy == GroupBy.TASK) {
+			rows.sort((a, b) -> Long.compare(a.getTaskId(), b.getTaskId()));
+		}
+		for (WorkLogDaily d : rows) {
+			String key;
+			switch (groupBy) {
+			case WEEK:
+				key = d.getLogDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toString();
+				break;
+			case MONTH:
+				key = d.getLogDate().toString().substring(0, 7);
+				break;
+			case TASK:
+				key = String.valueOf(d.getTaskId());
+				break;
+			default:
+				key = d.getLogDate().toString();
+			}
+			WorkSummaryDto group = groups.computeIfAbsent(key, k -> new WorkSummaryDto(k, 0, 0));
+			group.setTotalMinutes(group.getTotalMinutes() + d.getTotalMinutes());
+			group.setLogCount(group.getLogCount() + d.getLogCount());
+		}
+		return new ArrayList<>(groups.values());
+	}
+}
@@ -0,0 +1,53 @@
+package com.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation tokens for keyset pagination. A cursor is just the sort
+ * key of the last row returned, joined with '|' and base64url encoded, so
+ * clients cannot (and should not) build one themselves.
+ */
+public final class CursorCodec {
+
+	private CursorCodec() {
+	}
+
+	public static String encode(Object... parts) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < parts.length; i++) {
+			if (i > 0) {
+				sb.append('|');
+			}
+			sb.append(parts[i]);
+		}
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the cursor is malformed or does not
+	 *                                  have the expected number of parts
+	 */
+	public static String[] decode(String cursor, int expectedParts) {
+		String raw;
+		try {
+			raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid cursor");
+		}
+		String[] parts = raw.split("\\|", -1);
+		if (parts.length != expectedParts) {
+			throw new IllegalArgumentException("Invalid cursor");
+		}
+		return parts;
+	}
+
+	public static long decodeLong(String cursor) {
+		try {
+			return Long.parseLong(decode(cursor, 1)[0]);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid cursor");
+		}
+	}
+}
@@ -3,29 +3,54 @@ package com.util;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import com.security.CustomUserDetails;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class JwtUtil {
 
+	// Request attributes set by JwtFilter once the token has been verified
+	public static final String CLAIMS_ATTRIBUTE = "jwt.claims";
+	public static final String TOKEN_ATTRIBUTE = "jwt.token";
+
 	@Value("${jwt.secret}")
 	private String secret;
 
 	@Value("${jwt.expiration}")
 	private long expiration;
 
-	private Key getSigningKey() {
-		return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+	@Value("${jwt.claims-cache.max-size:10000}")
+	private int claimsCacheMaxSize;
+
+	private Key signingKey;
+
+	// JwtParser is immutable and thread-safe, so one instance serves every request
+	private JwtParser parser;
+
+	private final Map<String, Claims> claimsCache = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	void init() {
+		signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+		parser = Jwts.parserBuilder()
+				.setSigningKey(signingKey)
+				.build();
 	}
 
 	public boolean validateToken(String token, UserDetails userDetails) {
@@ -41,12 +66,69 @@ public class JwtUtil {
 		return extractAllClaims(token).getExpiration();
 	}
 
-	private Claims extractAllClaims(String token) {
-		return Jwts.parserBuilder()
-				.setSigningKey(getSigningKey())
-				.build()
-				.parseClaimsJws(token)
-				.getBody();
+	/**
+	 * Returns the verified claims of the token. Resolution order: claims already
+	 * attached to the current request by JwtFilter, then the verified-claims
+	 * cache, then a full parse + signature check (whose result is cached until
+	 * the token expires).
+	 */
+	public Claims extractAllClaims(String token) {
+		Claims claims = claimsFromRequest(token);
+		if (claims != null) {
+			return claims;
+		}
+
+		claims = claimsCache.get(token);
+		if (claims != null) {
+			if (!isExpired(claims)) {
+				return claims;
+			}
+			claimsCache.remove(token);
+		}
+
+		// Throws ExpiredJwtException / JwtException for bad tokens, nothing gets cached
+		claims = parser.parseClaimsJws(token).getBody();
+		cache(token, claims);
+		return claims;
+	}
+
+	private Claims claimsFromRequest(String token) {
+		RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+		if (attrs == null) {
+			return null;
+		}
+		Object cachedToken = attrs.getAttribute(TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+		if (token.equals(cachedToken)) {
+			return (Claims) attrs.getAttribute(CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+		}
+		return null;
+	}
+
+	private void cache(String token, Claims claims) {
+		if (claims.getExpiration() == null) {
+			return; // never cache tokens that do not expire
+		}
+		if (claimsCache.size() >= claimsCacheMaxSize) {
+			evictExpired();
+		}
+		if (claimsCache.size() >= claimsCacheMaxSize) {
+			// Still full of live tokens: drop an arbitrary slice to stay bounded
+			Iterator<String> it = claimsCache.keySet().iterator();
+			int toDrop = Math.max(1, claimsCacheMaxSize / 10);
+			while (it.hasNext() && toDrop-- > 0) {
+				it.next();
+				it.remove();
+			}
+		}
+		claimsCache.put(token, claims);
+	}
+
+	private void evictExpired() {
+		claimsCache.entrySet().removeIf(e -> isExpired(e.getValue()));
+	}
+
+	private boolean isExpired(Claims claims) {
+		return claims.getExpiration() != null && claims.getExpiration().before(new Date());
 	}
 
 	public String generateToken(CustomUserDetails user) {
@@ -54,9 +136,10 @@ public class JwtUtil {
 				.setSubject(user.getUsername())
 				.claim("role", user.getAuthorities().iterator().next().getAuthority())
 				.claim("userId", user.getUserId())
+				.claim("email", user.getEmail())
 				.setIssuedAt(new Date())
 				.setExpiration(new Date(System.currentTimeMillis() + expiration))
-				.signWith(getSigningKey(), SignatureAlgorithm.HS256)
+				.signWith(signingKey, SignatureAlgorithm.HS256)
 				.compact();
 	}
 
@@ -0,0 +1,21 @@
+package com.util;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Newline-delimited JSON responses: one JSON object per line, written while
+ * the rows are read, for clients that consume large lists as a stream.
+ */
+public final class NdjsonResponses {
+
+	public static final MediaType MEDIA_TYPE = MediaType.parseMediaType("application/x-ndjson");
+
+	private NdjsonResponses() {
+	}
+
+	public static ResponseEntity<StreamingResponseBody> of(StreamingResponseBody body) {
+		return ResponseEntity.ok().contentType(MEDIA_TYPE).body(body);
+	}
+}
@@ -0,0 +1,69 @@
+package com.util;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory updates until the surrounding transaction commits, so a
+ * rolled back write never shows up in caches, counters or indexes.
+ */
+public final class TransactionHooks {
+
+	private TransactionHooks() {
+	}
+
+	/** Runs action after commit, or right away when no transaction is active. */
+	public static void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+
+	/**
+	 * Adds to the batch bound to the current transaction under key and hands
+	 * the batch to onCommit once, after commit. The first call in a
+	 * transaction creates the batch and registers its one synchronization, so
+	 * a transaction that writes thousands of rows still holds one batch
+	 * rather than a closure per row. Without a transaction the batch is
+	 * handed over right away.
+	 *
+	 * @param key one per kind of batch, usually a private constant of the caller
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> void collect(Object key, Supplier<T> create, Consumer<T> add, Consumer<T> onCommit) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			T batch = create.get();
+			add.accept(batch);
+			onCommit.accept(batch);
+			return;
+		}
+		T batch = (T) TransactionSynchronizationManager.getResource(key);
+		if (batch == null) {
+			T bound = create.get();
+			batch = bound;
+			TransactionSynchronizationManager.bindResource(key, bound);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					onCommit.accept(bound);
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(key);
+				}
+			});
+		}
+		add.accept(batch);
+	}
+}
@@ -0,0 +1,239 @@
+package com.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Reads the rows of the first sheet of an .xlsx file. {@link #read(File, RowHandler)}
+ * streams the sheet XML with SAX, so memory stays flat however many rows the
+ * file has; {@link #read(Sheet, RowHandler)} walks an already loaded sheet.
+ * Both hand the same cell values to the handler, so row logic does not
+ * depend on how the file was opened.
+ */
+public final class XlsxRowReader {
+
+	private XlsxRowReader() {
+	}
+
+	// Mirrors the CellTypes row logic checks
+	public enum Kind {
+		BLANK, STRING, NUMERIC, BOOLEAN, FORMULA, ERROR
+	}
+
+	/** One cell. For FORMULA the cached result is in number or text. */
+	public record Cell(Kind kind, String text, double number, boolean numericResult) {
+
+		/** Same rules as POI's getNumericCellValue: blank is 0, text fails. */
+		public double numeric() {
+			if (kind == Kind.NUMERIC || (kind == Kind.FORMULA && numericResult)) {
+				return number;
+			}
+			if (kind == Kind.BLANK) {
+				return 0;
+			}
+			throw new IllegalStateException("Cannot get a NUMERIC value from a " + kind + " cell");
+		}
+	}
+
+	public interface RowHandler {
+		/**
+		 * @param position 0 for the first row present in the sheet, then 1, 2, ...
+		 *                 (rows missing from the file are not counted)
+		 * @param cells    by column; null where the row has no cell
+		 */
+		void row(int position, Cell[] cells);
+
+		/**
+		 * Called before the first row with the number of rows the sheet spans,
+		 * when the file records it.
+		 */
+		default void size(int rows) {
+		}
+	}
+
+	public static void read(File file, RowHandler handler) throws IOException {
+		try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+			XSSFReader reader = new XSSFReader(pkg);
+			ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+			Iterator<InputStream> sheets = reader.getSheetsData();
+			if (!sheets.hasNext()) {
+				return;
+			}
+			try (InputStream sheet = sheets.next()) {
+				XMLReader parser = XMLHelper.newXMLReader();
+				parser.setContentHandler(new SheetHandler(strings, handler));
+				parser.parse(new InputSource(sheet));
+			}
+		} catch (OpenXML4JException | SAXException | javax.xml.parsers.ParserConfigurationException e) {
+			throw new IOException("Unreadable .xlsx file: " + e.getMessage(), e);
+		}
+	}
+
+	public static void read(Sheet sheet, RowHandler handler) {
+		handler.size(sheet.getLastRowNum() + 1);
+		int position = 0;
+		for (Row row : sheet) {
+			Cell[] cells = new Cell[Math.max(0, row.getLastCellNum())];
+			for (org.apache.poi.ss.usermodel.Cell c : row) {
+				cells[c.getColumnIndex()] = cell(c);
+			}
+			handler.row(position++, cells);
+		}
+	}
+
+	private static Cell cell(org.apache.poi.ss.usermodel.Cell c) {
+		switch (c.getCellType()) {
+		case STRING:
+			return new Cell(Kind.STRING, c.getStringCellValue(), 0, false);
+		case NUMERIC:
+			return new Cell(Kind.NUMERIC, null, c.getNumericCellValue(), false);
+		case BOOLEAN:
+			return new Cell(Kind.BOOLEAN, String.valueOf(c.getBooleanCellValue()), 0, false);
+		case FORMULA:
+			if (c.getCachedFormulaResultType() == CellType.NUMERIC) {
+				return new Cell(Kind.FORMULA, null, c.getNumericCellValue(), true);
+			}
+			return new Cell(Kind.FORMULA, c.getCachedFormulaResultType() == CellType.STRING
+					? c.getStringCellValue() : null, 0, false);
+		case ERROR:
+			return new Cell(Kind.ERROR, null, 0, false);
+		default:
+			return new Cell(Kind.BLANK, null, 0, false);
+		}
+	}
+
+	// <row><c r="A2" t="s"><v>0</v></c>...</row>; t: s shared string, inlineStr, str formula text,
+	// b boolean, e error, n or absent number
+	private static final class SheetHandler extends DefaultHandler {
+		private final ReadOnlySharedStringsTable strings;
+		private final RowHandler handler;
+
+		private Cell[] cells = new Cell[16];
+		private int maxColumn = -1;
+		private int position;
+
+		private int column;
+		private String type;
+		private boolean formula;
+		private boolean inValue;
+		private final StringBuilder value = new StringBuilder();
+
+		SheetHandler(ReadOnlySharedStringsTable strings, RowHandler handler) {
+			this.strings = strings;
+			this.handler = handler;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attrs) {
+			switch (localName) {
+			case "dimension":
+				// ref="A1:F1001", or just "A1"
+				String range = attrs.getValue("ref");
+				if (range != null) {
+					handler.size(new CellReference(range.substring(range.indexOf(':') + 1)).getRow() + 1);
+				}
+				break;
+			case "row":
+				Arrays.fill(cells, null);
+				maxColumn = -1;
+				break;
+			case "c":
+				String ref = attrs.getValue("r");
+				column = ref != null ? new CellReference(ref).getCol() : maxColumn + 1;
+				type = attrs.getValue("t");
+				formula = false;
+				value.setLength(0);
+				break;
+			case "f":
+				formula = true;
+				break;
+			case "v":
+			case "t": // text of an inline string
+				inValue = true;
+				break;
+			default:
+				break;
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (inValue) {
+				value.append(ch, start, length);
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			switch (localName) {
+			case "v":
+			case "t":
+				inValue = false;
+				break;
+			case "c":
+				put(column, toCell());
+				break;
+			case "row":
+				handler.row(position++, Arrays.copyOf(cells, maxColumn + 1));
+				break;
+			default:
+				break;
+			}
+		}
+
+		private Cell toCell() {
+			String v = value.toString();
+			if (formula) {
+				if (type == null || "n".equals(type)) {
+					return v.isEmpty() ? new Cell(Kind.FORMULA, null, 0, false)
+							: new Cell(Kind.FORMULA, null, Double.parseDouble(v), true);
+				}
+				return new Cell(Kind.FORMULA, v, 0, false);
+			}
+			if (type == null || "n".equals(type)) {
+				return v.isEmpty() ? new Cell(Kind.BLANK, null, 0, false)
+						: new Cell(Kind.NUMERIC, null, Double.parseDouble(v), false);
+			}
+			switch (type) {
+			case "s":
+				return new Cell(Kind.STRING, strings.getItemAt(Integer.parseInt(v)).getString(), 0, false);
+			case "inlineStr":
+			case "str":
+				return new Cell(Kind.STRING, v, 0, false);
+			case "b":
+				return new Cell(Kind.BOOLEAN, "1".equals(v) ? "true" : "false", 0, false);
+			case "e":
+				return new Cell(Kind.ERROR, null, 0, false);
+			default:
+				return new Cell(Kind.BLANK, null, 0, false);
+			}
+		}
+
+		private void put(int col, Cell cell) {
+			if (col >= cells.length) {
+				cells = Arrays.copyOf(cells, Math.max(col + 1, cells.length * 2));
+			}
+			cells[col] = cell;
+			maxColumn = Math.max(maxColumn, col);
+		}
+	}
+}
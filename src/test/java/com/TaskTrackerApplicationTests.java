@@ -3,7 +3,7 @@ package com;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "search.index.path=${java.io.tmpdir}/task-search-${random.uuid}")
 class TaskTrackerApplicationTests {
 
 	@Test
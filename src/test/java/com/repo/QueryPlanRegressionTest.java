@@ -0,0 +1,252 @@
+package com.repo;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.entity.LeaveRequest;
+import com.entity.LeaveType;
+import com.entity.Role;
+import com.entity.Status;
+import com.entity.Task;
+import com.entity.TaskDetail;
+import com.entity.User;
+import com.entity.UserLoginAudit;
+import com.entity.WorkLog;
+
+/**
+ * Runs the hot repository queries against a seeded H2 database, records the
+ * SQL Hibernate sends, and fails if EXPLAIN shows a table scan for any of it
+ * or does not name the index the query was written for. Add a case here
+ * together with any new query on a large table.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:query-plans;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.format_sql=false",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.repo.QueryPlanRegressionTest$Recorder",
+		"search.index.path=${java.io.tmpdir}/task-search-${random.uuid}" })
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanRegressionTest {
+
+	private static final int USERS = 200;
+	private static final int TASKS_PER_USER = 10;
+	private static final int LOGS_PER_TASK = 3;
+
+	/** Collects the SQL of the current thread while a case runs. */
+	public static class Recorder implements StatementInspector {
+		static final ThreadLocal<List<String>> SQL = new ThreadLocal<>();
+
+		@Override
+		public String inspect(String sql) {
+			List<String> list = SQL.get();
+			if (list != null) {
+				list.add(sql);
+			}
+			return sql;
+		}
+	}
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private TaskDetailRepository taskDetailRepository;
+
+	@Autowired
+	private WorkLogRepository workLogRepository;
+
+	@Autowired
+	private LeaveRepository leaveRepository;
+
+	@Autowired
+	private UserLoginAuditRepository loginAuditRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private Long userId;
+	private Long otherUserId;
+	private Long taskId;
+
+	@BeforeAll
+	void seed() {
+		transactionTemplate.executeWithoutResult(status -> {
+			LocalDate today = LocalDate.now();
+			List<User> users = new ArrayList<>();
+			for (int u = 0; u < USERS; u++) {
+				User user = new User();
+				user.setUsername("plan-" + u);
+				user.setPassword("x");
+				user.setEmail("plan-" + u + "@example.com");
+				user.setRole(Role.ROLE_USER);
+				user.setActive(true);
+				users.add(user);
+			}
+			userRepository.saveAll(users);
+
+			List<Task> tasks = new ArrayList<>();
+			for (User user : users) {
+				for (int t = 0; t < TASKS_PER_USER; t++) {
+					Task task = new Task();
+					task.setTitle("Task " + t);
+					task.setStatus(Status.IN_PROGRESS);
+					task.setCreatedAt(today.minusDays(t * 7L));
+					task.setUser(user);
+					task.setTotalWorkedMinutes(0L);
+					tasks.add(task);
+				}
+			}
+			taskRepository.saveAll(tasks);
+
+			List<TaskDetail> details = new ArrayList<>();
+			List<WorkLog> logs = new ArrayList<>();
+			for (Task task : tasks) {
+				for (Status s : new Status[] { Status.TO_DO, Status.IN_PROGRESS }) {
+					TaskDetail d = new TaskDetail();
+					d.setTask(task);
+					d.setStatus(s);
+					d.setStartedAt(task.getCreatedAt().atTime(9, 0));
+					details.add(d);
+				}
+				for (int l = 0; l < LOGS_PER_TASK; l++) {
+					WorkLog log = new WorkLog();
+					log.setTask(task);
+					log.setUser(task.getUser());
+					log.setStartTime(task.getCreatedAt().atTime(9 + l, 0));
+					log.setEndTime(log.getStartTime().plusMinutes(45));
+					log.setDurationMinutes(45L);
+					logs.add(log);
+				}
+			}
+			taskDetailRepository.saveAll(details);
+			workLogRepository.saveAll(logs);
+
+			List<LeaveRequest> leaves = new ArrayList<>();
+			List<UserLoginAudit> audits = new ArrayList<>();
+			for (User user : users) {
+				for (int l = 0; l < 5; l++) {
+					LeaveRequest leave = new LeaveRequest();
+					leave.setUser(user);
+					leave.setFromDate(today.minusDays(30L * l));
+					leave.setToDate(today.minusDays(30L * l - 1));
+					leave.setLeaveType(LeaveType.CASUAL_LEAVE);
+					leave.setStatus(l == 0 ? "PENDING" : "APPROVED");
+					leaves.add(leave);
+				}
+				for (int a = 0; a < 10; a++) {
+					UserLoginAudit audit = new UserLoginAudit();
+					audit.setUserId(user.getId());
+					audit.setUsername(user.getUsername());
+					audit.setLoginTime(LocalDateTime.now().minusDays(a));
+					audit.setStatus(a == 0 ? "ACTIVE" : "LOGOUT");
+					audits.add(audit);
+				}
+			}
+			leaveRepository.saveAll(leaves);
+			loginAuditRepository.saveAll(audits);
+
+			userId = users.get(USERS / 2).getId();
+			otherUserId = users.get(USERS / 3).getId();
+			taskId = tasks.get(tasks.size() / 2).getId();
+		});
+		// Row counts and selectivity for the optimizer
+		jdbcTemplate.execute("ANALYZE");
+	}
+
+	@TestFactory
+	Stream<DynamicTest> hotQueriesUseIndexes() {
+		LocalDate from = LocalDate.now().minusDays(30);
+		LocalDate to = LocalDate.now();
+		return Stream.of(
+				plan("WorkLogRepository.findByUserIdAndStartTimeBetween", "IDX_WORK_LOGS_USER_START_END",
+						() -> workLogRepository.findByUserIdAndStartTimeBetween(userId, from.atStartOfDay(),
+								to.atStartOfDay())),
+				plan("WorkLogRepository.findByTaskId", "IDX_WORK_LOGS_TASK",
+						() -> workLogRepository.findByTaskId(taskId)),
+				plan("WorkLogRepository.findTimelineLogs", "IDX_WORK_LOGS_TASK",
+						() -> workLogRepository.findTimelineLogs(taskId)),
+				plan("WorkLogRepository.findIntervalsByUserId", "IDX_WORK_LOGS_USER_START_END",
+						() -> workLogRepository.findIntervalsByUserId(userId)),
+				plan("WorkLogRepository.findGridRows", "IDX_WORK_LOGS_USER_START_END",
+						() -> workLogRepository.findGridRows(userId, from.atStartOfDay(), to.atStartOfDay())),
+				plan("TaskRepository.findByUserIdInAndCreatedAtBetween", "IDX_TASK_USER_CREATED",
+						() -> taskRepository.findByUserIdInAndCreatedAtBetween(List.of(userId, otherUserId), from,
+								to)),
+				plan("TaskDetailRepository.findLatestInProgress", "IDX_TASK_DETAIL_TASK_STATUS_STARTED",
+						() -> taskDetailRepository.findLatestInProgress(taskId)),
+				plan("LeaveRepository.existsByOverlap", "IDX_LEAVE_REQUESTS_USER_STATUS_FROM",
+						() -> leaveRepository.existsByOverlap(userId, from, to)),
+				plan("UserLoginAuditRepository.findActiveSessions", "IDX_LOGIN_AUDIT_USER_STATUS_LOGIN",
+						() -> loginAuditRepository.findActiveSessions(userId)));
+	}
+
+	private DynamicTest plan(String name, String index, Runnable query) {
+		return DynamicTest.dynamicTest(name, () -> {
+			List<String> sql = new ArrayList<>();
+			Recorder.SQL.set(sql);
+			try {
+				transactionTemplate.executeWithoutResult(status -> query.run());
+			} finally {
+				Recorder.SQL.remove();
+			}
+			assertFalse(sql.isEmpty(), "no SQL recorded for " + name);
+			for (String statement : sql) {
+				String plan = explain(statement);
+				assertFalse(plan.contains(".tableScan"), name + " scans a table:\n" + plan);
+			}
+			// The query itself; later statements load associations by primary key. Another index
+			// on the leading column (H2 adds one per foreign key) would pass the scan check
+			String plan = explain(sql.get(0));
+			assertTrue(plan.contains("PUBLIC." + index + ":"), name + " does not use " + index + ":\n" + plan);
+		});
+	}
+
+	// Parameters are left NULL: the plan is chosen at prepare time, not from the values
+	private String explain(String sql) throws Exception {
+		try (Connection con = dataSource.getConnection();
+				PreparedStatement ps = con.prepareStatement("EXPLAIN " + sql)) {
+			int params = ps.getParameterMetaData().getParameterCount();
+			for (int i = 1; i <= params; i++) {
+				ps.setObject(i, null);
+			}
+			StringBuilder plan = new StringBuilder();
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					plan.append(rs.getString(1)).append('\n');
+				}
+			}
+			return plan.toString();
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package com.repo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.entity.Role;
+import com.entity.Status;
+import com.entity.Task;
+import com.entity.User;
+
+/**
+ * 64 writers add minutes to the same task at once, each increment in its own
+ * transaction, while another thread keeps saving a stale copy of the Task.
+ * Every minute must end up in the total.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:worked-minutes;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.format_sql=false",
+		"search.index.path=${java.io.tmpdir}/task-search-${random.uuid}" })
+class TaskWorkedMinutesConcurrencyTest {
+
+	private static final int WRITERS = 64;
+	private static final int INCREMENTS = 50;
+	private static final long MINUTES = 7;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void parallelWritersLoseNoMinutes() throws Exception {
+		Long taskId = newTask();
+
+		ExecutorService pool = Executors.newFixedThreadPool(WRITERS + 1);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> writers = new ArrayList<>();
+		try {
+			for (int w = 0; w < WRITERS; w++) {
+				writers.add(pool.submit(() -> {
+					start.await();
+					for (int i = 0; i < INCREMENTS; i++) {
+						transactionTemplate.executeWithoutResult(
+								status -> taskRepository.addWorkedMinutes(taskId, MINUTES));
+					}
+					return null;
+				}));
+			}
+			// Whole-entity saves used to write back whatever total they had read
+			Future<?> editor = pool.submit(() -> {
+				start.await();
+				for (int i = 0; i < 200; i++) {
+					transactionTemplate.executeWithoutResult(status -> {
+						Task task = taskRepository.findById(taskId).orElseThrow();
+						task.setComment("edit " + System.nanoTime());
+						taskRepository.save(task);
+					});
+				}
+				return null;
+			});
+
+			start.countDown();
+			for (Future<?> f : writers) {
+				f.get(2, TimeUnit.MINUTES);
+			}
+			editor.get(2, TimeUnit.MINUTES);
+		} finally {
+			pool.shutdownNow();
+		}
+
+		long total = taskRepository.findById(taskId).orElseThrow().getTotalWorkedMinutes();
+		assertEquals(WRITERS * INCREMENTS * MINUTES, total);
+	}
+
+	@Test
+	void reconcileFindsAndFixesDrift() {
+		Long taskId = newTask();
+		transactionTemplate.executeWithoutResult(status -> taskRepository.addWorkedMinutes(taskId, 90));
+
+		// No work_logs behind those 90 minutes
+		assertTrue(taskRepository.findWorkedMinutesDrift().stream()
+				.anyMatch(r -> ((Number) r[0]).longValue() == taskId));
+		// A total that moved since the drift was read is not overwritten
+		transactionTemplate.executeWithoutResult(status -> taskRepository.addWorkedMinutes(taskId, 10));
+		assertEquals(0, (int) transactionTemplate
+				.execute(status -> taskRepository.resetWorkedMinutesFromLogs(taskId, 90)));
+		assertEquals(100, taskRepository.findById(taskId).orElseThrow().getTotalWorkedMinutes());
+
+		assertEquals(1, (int) transactionTemplate
+				.execute(status -> taskRepository.resetWorkedMinutesFromLogs(taskId, 100)));
+		assertEquals(0, taskRepository.findById(taskId).orElseThrow().getTotalWorkedMinutes());
+		assertTrue(taskRepository.findWorkedMinutesDrift().stream()
+				.noneMatch(r -> ((Number) r[0]).longValue() == taskId));
+	}
+
+	private Long newTask() {
+		User user = new User();
+		user.setUsername("minutes-" + System.nanoTime());
+		user.setPassword("x");
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setRole(Role.ROLE_USER);
+		user.setActive(true);
+		user = userRepository.save(user);
+
+		Task task = new Task();
+		task.setTitle("Concurrent task");
+		task.setStatus(Status.IN_PROGRESS);
+		task.setCreatedAt(LocalDate.now());
+		task.setUser(user);
+		task.setTotalWorkedMinutes(0L);
+		return taskRepository.save(task).getId();
+	}
+}
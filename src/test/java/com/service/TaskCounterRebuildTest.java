@@ -0,0 +1,119 @@
+package com.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.entity.Role;
+import com.entity.Status;
+import com.entity.Task;
+import com.entity.User;
+import com.repo.TaskRepository;
+import com.repo.UserRepository;
+
+/**
+ * Task writers keep creating tasks while counters are rebuilt over and over.
+ * Afterwards the counters, in memory and in the table, must match the tasks.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:counter-rebuild;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.format_sql=false",
+		"search.index.path=${java.io.tmpdir}/task-search-${random.uuid}" })
+class TaskCounterRebuildTest {
+
+	private static final int WRITERS = 8;
+	private static final int TASKS = 100;
+
+	@Autowired
+	private TaskCounterService counterService;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void rebuildLosesNoConcurrentWrite() throws Exception {
+		User user = newUser();
+
+		ExecutorService pool = Executors.newFixedThreadPool(WRITERS + 1);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		List<Future<?>> writers = new ArrayList<>();
+		try {
+			for (int w = 0; w < WRITERS; w++) {
+				writers.add(pool.submit(() -> {
+					start.await();
+					for (int i = 0; i < TASKS; i++) {
+						transactionTemplate.executeWithoutResult(status -> {
+							Task task = new Task();
+							task.setTitle("Counted task");
+							task.setStatus(Status.TO_DO);
+							task.setCreatedAt(LocalDate.now());
+							task.setUser(user);
+							task.setTotalWorkedMinutes(0L);
+							taskRepository.save(task);
+							taskRepository.flush();
+							counterService.taskCreated(user.getId(), Status.TO_DO);
+						});
+					}
+					return null;
+				}));
+			}
+			Future<Integer> rebuilds = pool.submit(() -> {
+				start.await();
+				int n = 0;
+				while (writing.get()) {
+					counterService.rebuild();
+					n++;
+				}
+				return n;
+			});
+
+			start.countDown();
+			for (Future<?> f : writers) {
+				f.get(2, TimeUnit.MINUTES);
+			}
+			writing.set(false);
+			rebuilds.get(1, TimeUnit.MINUTES);
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertEquals(List.of(), counterService.check());
+		assertEquals(WRITERS * TASKS, counterService.snapshot(user.getId())[Status.TO_DO.ordinal()]);
+
+		// The table agrees too: a rebuild from it changes nothing
+		counterService.load();
+		assertEquals(List.of(), counterService.check());
+	}
+
+	private User newUser() {
+		User user = new User();
+		user.setUsername("counted-" + System.nanoTime());
+		user.setPassword("x");
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setRole(Role.ROLE_USER);
+		user.setActive(true);
+		return userRepository.save(user);
+	}
+}
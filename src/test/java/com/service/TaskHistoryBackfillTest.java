@@ -0,0 +1,192 @@
+package com.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.dto.CursorPage;
+import com.dto.TaskHistoryDTO;
+import com.entity.Role;
+import com.entity.Status;
+import com.entity.Task;
+import com.entity.TaskDetail;
+import com.entity.User;
+import com.repo.TaskDetailRepository;
+import com.repo.TaskRepository;
+import com.repo.UserRepository;
+
+/**
+ * A task from before the event store, read by many requests at once: its
+ * history is written exactly once, and pages come from task_events. Seqs of
+ * a rolled back append are never handed out again while others are open.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:history-backfill;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.format_sql=false",
+		"search.index.path=${java.io.tmpdir}/task-search-${random.uuid}" })
+class TaskHistoryBackfillTest {
+
+	private static final int READERS = 16;
+	private static final int PERIODS = 30;
+
+	@Autowired
+	private TaskEventService eventService;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private TaskDetailRepository taskDetailRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void concurrentFirstReadsBackfillOnce() throws Exception {
+		Long taskId = legacyTask();
+
+		ExecutorService pool = Executors.newFixedThreadPool(READERS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<List<TaskHistoryDTO>>> readers = new ArrayList<>();
+		try {
+			for (int r = 0; r < READERS; r++) {
+				readers.add(pool.submit(() -> {
+					start.await();
+					return eventService.getHistory(taskId);
+				}));
+			}
+			start.countDown();
+			List<TaskHistoryDTO> first = readers.get(0).get(2, TimeUnit.MINUTES);
+			for (Future<List<TaskHistoryDTO>> f : readers) {
+				assertEquals(first.size(), f.get(2, TimeUnit.MINUTES).size());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		// Created marker plus a start and an end per period
+		long expected = 1 + 2L * PERIODS;
+		assertEquals(expected, count("SELECT COUNT(*) FROM task_events WHERE task_id = ?", taskId));
+		assertEquals(expected, count("SELECT MAX(seq) FROM task_events WHERE task_id = ?", taskId));
+		assertEquals(1, count("SELECT COUNT(*) FROM task_backfills WHERE task_id = ?", taskId));
+	}
+
+	@Test
+	void pagesWalkTheWholeHistory() {
+		Long taskId = legacyTask();
+		List<TaskHistoryDTO> all = eventService.getHistory(taskId);
+
+		List<TaskHistoryDTO> paged = new ArrayList<>();
+		String cursor = null;
+		do {
+			CursorPage<TaskHistoryDTO> page = eventService.getHistoryPage(taskId, cursor, 7);
+			paged.addAll(page.getItems());
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertEquals(all.size(), paged.size());
+		for (int i = 0; i < all.size(); i++) {
+			assertEquals(all.get(i).getTimestamp(), paged.get(i).getTimestamp());
+			assertEquals(all.get(i).getMetadata(), paged.get(i).getMetadata());
+		}
+		assertNull(eventService.getHistoryPage(taskId, null, all.size()).getNextCursor());
+	}
+
+	@Test
+	void rollbackDoesNotHandOutAnOpenSeq() throws Exception {
+		Long taskId = legacyTask();
+		eventService.getHistory(taskId);
+
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		CountDownLatch appended = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			// Holds the next seq, uncommitted, until released
+			Future<?> open = pool.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+				eventService.edited(taskId, null, "open", List.of("title"));
+				appended.countDown();
+				try {
+					release.await(2, TimeUnit.MINUTES);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+			assertTrue(appended.await(1, TimeUnit.MINUTES));
+
+			transactionTemplate.executeWithoutResult(status -> {
+				eventService.edited(taskId, null, "rolled back", List.of("title"));
+				status.setRollbackOnly();
+			});
+			// Used to reseed from the committed rows and collide with the open transaction's seq
+			Future<?> next = pool.submit(() -> transactionTemplate
+					.executeWithoutResult(status -> eventService.edited(taskId, null, "next", List.of("title"))));
+			next.get(20, TimeUnit.SECONDS);
+
+			release.countDown();
+			open.get(1, TimeUnit.MINUTES);
+		} finally {
+			release.countDown();
+			pool.shutdownNow();
+		}
+
+		assertEquals(count("SELECT COUNT(*) FROM task_events WHERE task_id = ?", taskId),
+				count("SELECT COUNT(DISTINCT seq) FROM task_events WHERE task_id = ?", taskId));
+		assertEquals(2 + 2L * PERIODS + 1, count("SELECT COUNT(*) FROM task_events WHERE task_id = ?", taskId));
+	}
+
+	private long count(String sql, Long taskId) {
+		return jdbcTemplate.queryForObject(sql, Long.class, taskId);
+	}
+
+	// Rows written straight to the tables, the way tasks looked before task_events existed
+	private Long legacyTask() {
+		User user = new User();
+		user.setUsername("history-" + System.nanoTime());
+		user.setPassword("x");
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setRole(Role.ROLE_USER);
+		user.setActive(true);
+		user = userRepository.save(user);
+
+		Task task = new Task();
+		task.setTitle("Legacy task");
+		task.setStatus(Status.IN_PROGRESS);
+		task.setCreatedAt(LocalDate.of(2024, 1, 1));
+		task.setUser(user);
+		task.setTotalWorkedMinutes(0L);
+		task = taskRepository.save(task);
+
+		LocalDateTime t = LocalDateTime.of(2024, 1, 2, 9, 0);
+		List<TaskDetail> details = new ArrayList<>();
+		for (int i = 0; i < PERIODS; i++) {
+			details.add(new TaskDetail(null, task, i % 2 == 0 ? Status.IN_PROGRESS : Status.REVIEW,
+					t.plusHours(3L * i), t.plusHours(3L * i + 1), "period " + i));
+		}
+		taskDetailRepository.saveAll(details);
+		return task.getId();
+	}
+}
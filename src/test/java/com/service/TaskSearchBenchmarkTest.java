@@ -0,0 +1,113 @@
+package com.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.dto.TaskSearchResponse;
+import com.entity.Status;
+
+/**
+ * Search latency over 1M indexed tasks: listings with and without filters,
+ * a term every task has, rare terms, a phrase and prefixes. Filter-only
+ * listings should cost about the same as a page, not the corpus.
+ *
+ * Run with: mvn -o test -Pbenchmark -Dtest=TaskSearchBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:search-bench;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.format_sql=false",
+		"search.index.path=${java.io.tmpdir}/task-search-${random.uuid}" })
+class TaskSearchBenchmarkTest {
+
+	private static final int TASKS = 1_000_000;
+	private static final int USERS = 1_000;
+	private static final int MODULES = 10_000;
+	private static final int ROUNDS = 20;
+
+	// Past the users the application seeds on start
+	private static final long USER_IDS = 10_000;
+
+	@Autowired
+	private TaskSearchIndex searchIndex;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void searchOneMillionTasks() throws Exception {
+		seed();
+
+		LocalDate today = LocalDate.now();
+		Long user = USER_IDS + 42;
+		time("listing", TASKS, () -> searchIndex.search(null, null, null, null, null, 0, 20));
+		time("listing, deep page", TASKS, () -> searchIndex.search(null, null, null, null, null, 50, 20));
+		time("listing by status", TASKS / 5, () -> searchIndex.search(null, Status.REVIEW, null, null, null, 0, 20));
+		time("listing by assignee", TASKS / USERS, () -> searchIndex.search("", null, user, null, null, 0, 20));
+		time("listing by assignee and status", TASKS / USERS / 5,
+				() -> searchIndex.search(null, Status.TO_DO, user, null, null, 0, 20));
+		time("listing by date", -1, () -> searchIndex.search(null, null, null, today.minusDays(30), today, 0, 20));
+		time("common term", TASKS, () -> searchIndex.search("fix", null, null, null, null, 0, 20));
+		time("common term by assignee", TASKS / USERS,
+				() -> searchIndex.search("fix", null, user, null, null, 0, 20));
+		time("rare term", TASKS / MODULES, () -> searchIndex.search("k42", null, null, null, null, 0, 20));
+		time("common and rare term", TASKS / MODULES,
+				() -> searchIndex.search("fix k42", null, null, null, null, 0, 20));
+		time("phrase", TASKS / 2, () -> searchIndex.search("\"fix bug\"", null, null, null, null, 0, 20));
+		time("prefix of a common term", TASKS, () -> searchIndex.search("modu*", null, null, null, null, 0, 20));
+		time("prefix of rare terms", 111 * TASKS / MODULES,
+				() -> searchIndex.search("k42*", null, null, null, null, 0, 20));
+	}
+
+	// Generated in the database, then indexed the way a start without a snapshot does it
+	private void seed() throws InterruptedException {
+		jdbcTemplate.update("""
+				INSERT INTO users (id, username, password, email, role, active)
+				SELECT ? + X, 'bench-' || X, 'x', 'bench-' || X || '@example.com', 'ROLE_USER', TRUE
+				FROM SYSTEM_RANGE(1, ?)
+				""", USER_IDS, USERS);
+		jdbcTemplate.update("""
+				INSERT INTO task (id, title, status, created_at, user_id, total_worked_minutes)
+				SELECT X, 'Fix ' || CASE MOD(X, 2) WHEN 0 THEN 'bug' ELSE 'layout' END || ' in module k' || MOD(X, ?),
+				    MOD(X / ?, 5), DATEADD('DAY', -MOD(X, 1000), CURRENT_DATE), ? + MOD(X, ?) + 1, 0
+				FROM SYSTEM_RANGE(1, ?)
+				""", MODULES, USERS, USER_IDS, USERS, TASKS);
+
+		long started = System.nanoTime();
+		searchIndex.startLoading();
+		while (searchIndex.search(null, null, null, null, null, 0, 1).getTotal() < TASKS) {
+			Thread.sleep(200);
+		}
+		System.out.printf("search index: %d tasks indexed in %d ms%n", TASKS,
+				(System.nanoTime() - started) / 1_000_000);
+	}
+
+	// expectedTotal < 0: not checked
+	private void time(String label, long expectedTotal, Supplier<TaskSearchResponse> query) {
+		TaskSearchResponse warm = query.get();
+		if (expectedTotal >= 0) {
+			assertEquals(expectedTotal, warm.getTotal(), label);
+		}
+		assertFalse(warm.getHits().isEmpty(), label);
+
+		long best = Long.MAX_VALUE;
+		for (int r = 0; r < ROUNDS; r++) {
+			long t0 = System.nanoTime();
+			query.get();
+			best = Math.min(best, System.nanoTime() - t0);
+		}
+		System.out.printf("search %-32s total %8d%s  best %8.3f ms%n", label, warm.getTotal(),
+				warm.isTotalExact() ? " " : "+", best / 1e6);
+	}
+}
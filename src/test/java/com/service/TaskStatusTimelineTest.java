@@ -0,0 +1,128 @@
+package com.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.entity.Status;
+
+/**
+ * TaskStatusTimeline.labelAt must give the label the old per-log scan from
+ * the first period gave, including for periods that start at the same time.
+ * WorkLogStatusBenchmarkTest times the two on the same fixture.
+ */
+class TaskStatusTimelineTest {
+
+	private static final LocalDateTime ORIGIN = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+	record Period(LocalDateTime startedAt, LocalDateTime endedAt, Status status) {
+	}
+
+	@Test
+	void matchesScan() {
+		Random random = new Random(42);
+		List<Period> periods = periods(random, 500);
+		TaskStatusTimeline timeline = timeline(periods);
+
+		for (LocalDateTime log : logTimes(random, periods, 5_000)) {
+			assertEquals(scan(periods, log), timeline.labelAt(log), "log at " + log);
+		}
+		// Exactly on each start and end
+		for (Period p : periods) {
+			assertEquals(scan(periods, p.startedAt()), timeline.labelAt(p.startedAt()));
+			if (p.endedAt() != null) {
+				assertEquals(scan(periods, p.endedAt()), timeline.labelAt(p.endedAt()));
+			}
+		}
+	}
+
+	@Test
+	void sameStartLastPeriodWins() {
+		TaskStatusTimeline timeline = new TaskStatusTimeline();
+		timeline.add(ORIGIN, ORIGIN.plusHours(1), Status.IN_PROGRESS);
+		timeline.add(ORIGIN, null, Status.REASSIGN);
+		timeline.add(ORIGIN.plusHours(2), null, Status.REVIEW);
+
+		assertEquals("Reassigned", timeline.labelAt(ORIGIN));
+		assertEquals("Reassigned", timeline.labelAt(ORIGIN.plusMinutes(90)));
+		assertEquals(Status.REVIEW.toString(), timeline.labelAt(ORIGIN.plusHours(2)));
+	}
+
+	@Test
+	void emptyTimelineIsToDo() {
+		assertEquals("To Do", new TaskStatusTimeline().labelAt(ORIGIN));
+	}
+
+	@Test
+	void beforeFirstPeriodIsToDo() {
+		TaskStatusTimeline timeline = new TaskStatusTimeline();
+		timeline.add(ORIGIN, null, Status.IN_PROGRESS);
+
+		assertEquals("To Do", timeline.labelAt(ORIGIN.minusSeconds(1)));
+		assertEquals("In Progress", timeline.labelAt(ORIGIN));
+	}
+
+	@Test
+	void inProgressEndedIsUnderReview() {
+		TaskStatusTimeline timeline = new TaskStatusTimeline();
+		timeline.add(ORIGIN, ORIGIN.plusHours(1), Status.IN_PROGRESS);
+
+		assertEquals("In Progress", timeline.labelAt(ORIGIN.plusHours(1)));
+		assertEquals("Under Review", timeline.labelAt(ORIGIN.plusHours(1).plusSeconds(1)));
+	}
+
+	// Periods by start, random gaps; every fourth one starts together with the one before it
+	static List<Period> periods(Random random, int count) {
+		Status[] statuses = { Status.TO_DO, Status.IN_PROGRESS, Status.REVIEW, Status.REASSIGN, Status.IN_PROGRESS };
+		List<Period> periods = new ArrayList<>(count);
+		LocalDateTime start = ORIGIN;
+		for (int i = 0; i < count; i++) {
+			if (random.nextInt(4) != 0) {
+				start = start.plusHours(1 + random.nextInt(5));
+			}
+			LocalDateTime end = random.nextInt(4) == 0 ? null : start.plusHours(3);
+			periods.add(new Period(start, end, statuses[random.nextInt(statuses.length)]));
+		}
+		return periods;
+	}
+
+	static TaskStatusTimeline timeline(List<Period> periods) {
+		TaskStatusTimeline timeline = new TaskStatusTimeline();
+		for (Period p : periods) {
+			timeline.add(p.startedAt(), p.endedAt(), p.status());
+		}
+		return timeline;
+	}
+
+	// From ten hours before the first period to ten hours after the last start
+	static List<LocalDateTime> logTimes(Random random, List<Period> periods, int count) {
+		LocalDateTime first = ORIGIN.minusHours(10);
+		LocalDateTime last = periods.get(periods.size() - 1).startedAt().plusHours(10);
+		int span = (int) Duration.between(first, last).toMinutes();
+		List<LocalDateTime> logs = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			logs.add(first.plusMinutes(random.nextInt(span)));
+		}
+		return logs;
+	}
+
+	// What getUserWorkLogs did per log before
+	static String scan(List<Period> periods, LocalDateTime logTime) {
+		Period effective = null;
+		for (Period p : periods) {
+			if (!p.startedAt().isAfter(logTime)) {
+				effective = p;
+			} else {
+				break;
+			}
+		}
+		return effective == null ? "To Do"
+				: TaskStatusTimeline.label(effective.status(), effective.endedAt(), logTime);
+	}
+}
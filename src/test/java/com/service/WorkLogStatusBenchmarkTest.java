@@ -0,0 +1,52 @@
+package com.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Status labelling of 10k work logs against 2k status periods of one task:
+ * the old per-log scan from the first period against the binary search in
+ * TaskStatusTimeline. Fixture and scan are TaskStatusTimelineTest's, which
+ * checks that both give the same labels.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=WorkLogStatusBenchmarkTest
+ */
+@Tag("benchmark")
+class WorkLogStatusBenchmarkTest {
+
+	private static final int LOGS = 10_000;
+	private static final int DETAILS = 2_000;
+	private static final int ROUNDS = 20;
+
+	@Test
+	void labelTenThousandLogs() {
+		Random random = new Random(42);
+		List<TaskStatusTimelineTest.Period> periods = TaskStatusTimelineTest.periods(random, DETAILS);
+		TaskStatusTimeline timeline = TaskStatusTimelineTest.timeline(periods);
+		List<LocalDateTime> logs = TaskStatusTimelineTest.logTimes(random, periods, LOGS);
+
+		long scanNanos = Long.MAX_VALUE;
+		long searchNanos = Long.MAX_VALUE;
+		int sink = 0;
+		for (int r = 0; r < ROUNDS; r++) {
+			long t0 = System.nanoTime();
+			for (LocalDateTime log : logs) {
+				sink += TaskStatusTimelineTest.scan(periods, log).length();
+			}
+			long t1 = System.nanoTime();
+			for (LocalDateTime log : logs) {
+				sink += timeline.labelAt(log).length();
+			}
+			long t2 = System.nanoTime();
+			scanNanos = Math.min(scanNanos, t1 - t0);
+			searchNanos = Math.min(searchNanos, t2 - t1);
+		}
+
+		System.out.printf("status labels for %d logs / %d details: scan %.2f ms, binary search %.2f ms (x%.0f) [%d]%n",
+				LOGS, DETAILS, scanNanos / 1e6, searchNanos / 1e6, (double) scanNanos / searchNanos, sink);
+	}
+}